@@ -0,0 +1,86 @@
+package com.poc.redis.benchmark;
+
+import com.poc.redis.RedisPocApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * Self-contained application for the round-trip benchmarks: an embedded Redis on a free port
+ * and the real Spring context against an in-memory H2 database, without the web server.
+ */
+final class BenchmarkEnvironment implements AutoCloseable {
+
+    private final RedisServer redisServer;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(RedisServer redisServer, ConfigurableApplicationContext context) {
+        this.redisServer = redisServer;
+        this.context = context;
+    }
+
+    static BenchmarkEnvironment start(String... extraProperties) {
+        int port = freePort();
+        RedisServer redisServer;
+        try {
+            redisServer = new RedisServer(port);
+            redisServer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start embedded Redis on port " + port, e);
+        }
+        try {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(RedisPocApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.data.redis.host=localhost",
+                            "spring.data.redis.port=" + port,
+                            "spring.data.redis.sentinel.enabled=false",
+                            "spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+                            "spring.datasource.driver-class-name=org.h2.Driver",
+                            "spring.datasource.username=sa",
+                            "spring.datasource.password=",
+                            "spring.jpa.hibernate.ddl-auto=create-drop",
+                            "logging.level.root=WARN")
+                    .properties(extraProperties)
+                    .run();
+            return new BenchmarkEnvironment(redisServer, context);
+        } catch (RuntimeException e) {
+            stopQuietly(redisServer);
+            throw e;
+        }
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        try {
+            context.close();
+        } finally {
+            stopQuietly(redisServer);
+        }
+    }
+
+    private static void stopQuietly(RedisServer redisServer) {
+        try {
+            redisServer.stop();
+        } catch (IOException e) {
+            // Process is gone with the fork anyway
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
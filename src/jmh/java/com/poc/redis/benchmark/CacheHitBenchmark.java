@@ -0,0 +1,56 @@
+package com.poc.redis.benchmark;
+
+import com.poc.redis.model.User;
+import com.poc.redis.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@code @Cacheable} hit path of {@link UserService#getUserById}: proxy, cache decorators,
+ * Redis GET and value decoding. The entry is loaded once in setup, so the database is never hit.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheHitBenchmark {
+
+    private BenchmarkEnvironment environment;
+    private UserService userService;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = BenchmarkEnvironment.start();
+        userService = environment.bean(UserService.class);
+        userId = userService.createUser(new User(null, "Jane Doe", "jane.doe@example.com", "Engineer")).getId();
+        if (userService.getUserById(userId).isEmpty()) {
+            throw new IllegalStateException("Benchmark user " + userId + " was not loaded");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public Optional<User> getUserById() {
+        return userService.getUserById(userId);
+    }
+}
@@ -0,0 +1,62 @@
+package com.poc.redis.benchmark;
+
+import com.poc.redis.service.RedisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single round-trips through {@link RedisService} (redisTemplate with the configured value serializer).
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisServiceBenchmark {
+
+    private static final String VALUE_KEY = "bench:value";
+    private static final String COUNTER_KEY = "bench:counter";
+
+    private BenchmarkEnvironment environment;
+    private RedisService redisService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = BenchmarkEnvironment.start();
+        redisService = environment.bean(RedisService.class);
+        redisService.setValue(VALUE_KEY, "benchmark-value");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public void set() {
+        redisService.setValue(VALUE_KEY, "benchmark-value");
+    }
+
+    @Benchmark
+    public Object get() {
+        return redisService.getValue(VALUE_KEY);
+    }
+
+    @Benchmark
+    public Long increment() {
+        return redisService.increment(COUNTER_KEY);
+    }
+}
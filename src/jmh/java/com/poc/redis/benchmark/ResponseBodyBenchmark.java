@@ -0,0 +1,92 @@
+package com.poc.redis.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.redis.model.User;
+import com.poc.redis.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response body of GET /users/{id} and GET /users (100 users) on a cache hit:
+ * {@code objects} reads User objects from the cache and serializes them the way Spring MVC does,
+ * {@code bytes} reads the cached JSON body (response-cache enabled).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseBodyBenchmark {
+
+    private static final int LIST_SIZE = 100;
+
+    @Param({"objects", "bytes"})
+    public String body;
+
+    private BenchmarkEnvironment environment;
+    private UserService userService;
+    private ObjectMapper objectMapper;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = "bytes".equals(body)
+                ? BenchmarkEnvironment.start("spring.data.redis.response-cache.enabled=true")
+                : BenchmarkEnvironment.start();
+        userService = environment.bean(UserService.class);
+        objectMapper = environment.bean(ObjectMapper.class);
+        List<User> users = new ArrayList<>(LIST_SIZE);
+        for (long i = 1; i <= LIST_SIZE; i++) {
+            users.add(new User(null, "User " + i, "user" + i + "@example.com", i % 2 == 0 ? "Engineer" : "Manager"));
+        }
+        userId = userService.createUsersInBulk(users).get(0).getId();
+        if (getUser() == null || getAllUsers() == null) {
+            throw new IllegalStateException("Benchmark user " + userId + " was not loaded");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public byte[] getUser() {
+        if ("bytes".equals(body)) {
+            return userService.getUserJson(userId);
+        }
+        return userService.getUserById(userId).map(this::toJson).orElse(null);
+    }
+
+    @Benchmark
+    public byte[] getAllUsers() {
+        if ("bytes".equals(body)) {
+            return userService.getAllUsersJson();
+        }
+        return toJson(userService.getAllUsers());
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
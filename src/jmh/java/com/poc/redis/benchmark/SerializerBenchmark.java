@@ -0,0 +1,92 @@
+package com.poc.redis.benchmark;
+
+import com.poc.redis.model.User;
+import com.poc.redis.serializer.CompactRedisSerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of a single User and of a 100-user list (the getAllUsers payload).
+ * <ul>
+ *   <li>jackson - GenericJackson2JsonRedisSerializer, used by redisTemplate</li>
+ *   <li>jdk - JdkSerializationRedisSerializer, the cache default in JSON mode</li>
+ *   <li>binary / binary-deflate - CompactRedisSerializer</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+    private static final int LIST_SIZE = 100;
+
+    @Param({"jackson", "jdk", "binary", "binary-deflate"})
+    public String format;
+
+    private RedisSerializer<Object> serializer;
+    private User user;
+    private List<User> users;
+    private byte[] userBytes;
+    private byte[] usersBytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        serializer = switch (format) {
+            case "jackson" -> new GenericJackson2JsonRedisSerializer();
+            case "jdk" -> (RedisSerializer<Object>) (RedisSerializer<?>) new JdkSerializationRedisSerializer();
+            case "binary" -> new CompactRedisSerializer(new GenericJackson2JsonRedisSerializer(),
+                    false, 1024, new SimpleMeterRegistry());
+            case "binary-deflate" -> new CompactRedisSerializer(new GenericJackson2JsonRedisSerializer(),
+                    true, 1024, new SimpleMeterRegistry());
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        user = new User(42L, "Jane Doe", "jane.doe@example.com", "Senior Engineer");
+        users = new ArrayList<>(LIST_SIZE);
+        for (long i = 1; i <= LIST_SIZE; i++) {
+            users.add(new User(i, "User " + i, "user" + i + "@example.com", i % 2 == 0 ? "Engineer" : "Manager"));
+        }
+        userBytes = serializer.serialize(user);
+        usersBytes = serializer.serialize(users);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() {
+        return serializer.serialize(user);
+    }
+
+    @Benchmark
+    public Object deserializeUser() {
+        return serializer.deserialize(userBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeUserList() {
+        return serializer.serialize(users);
+    }
+
+    @Benchmark
+    public Object deserializeUserList() {
+        return serializer.deserialize(usersBytes);
+    }
+}
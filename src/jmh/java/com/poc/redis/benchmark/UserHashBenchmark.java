@@ -0,0 +1,84 @@
+package com.poc.redis.benchmark;
+
+import com.poc.redis.model.User;
+import com.poc.redis.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The users cache stored as serialized values ({@code blob}) or as Redis hashes ({@code hash}):
+ * full reads, a one-field projection and a cache write that changes one field.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserHashBenchmark {
+
+    private static final List<String> EMAIL = List.of("email");
+
+    @Param({"blob", "hash"})
+    public String storage;
+
+    private BenchmarkEnvironment environment;
+    private UserService userService;
+    private Cache cache;
+    private User user;
+    private User promoted;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = "hash".equals(storage)
+                ? BenchmarkEnvironment.start("spring.data.redis.serializer.hash-caches=users")
+                : BenchmarkEnvironment.start();
+        userService = environment.bean(UserService.class);
+        cache = environment.bean(CacheManager.class).getCache("users");
+        user = userService.createUser(new User(null, "Jane Doe", "jane.doe@example.com", "Engineer"));
+        promoted = new User(user.getId(), user.getName(), user.getEmail(), "Senior Engineer");
+        if (userService.getUserById(user.getId()).isEmpty()) {
+            throw new IllegalStateException("Benchmark user " + user.getId() + " was not loaded");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public Optional<User> getUser() {
+        return userService.getUserById(user.getId());
+    }
+
+    @Benchmark
+    public Map<String, Object> getEmail() {
+        return userService.getUserFields(user.getId(), EMAIL);
+    }
+
+    @Benchmark
+    public void updateDesignation() {
+        flip = !flip;
+        cache.put(user.getId(), flip ? promoted : user);
+    }
+}
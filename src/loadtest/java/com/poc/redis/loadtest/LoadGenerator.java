@@ -0,0 +1,350 @@
+package com.poc.redis.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToIntFunction;
+
+/**
+ * HTTP load generator for UserController.
+ * <ul>
+ *   <li>Closed loop (rate=0): each of the concurrency workers sends its next request as soon as the
+ *       previous one returns; latency is measured from send.</li>
+ *   <li>Open loop (rate &gt; 0): requests are scheduled at a fixed rate, spread round-robin over the
+ *       workers, and latency is measured from the scheduled start. A server stall therefore shows
+ *       up in the percentiles instead of silently lowering the request rate (coordinated omission).</li>
+ * </ul>
+ * Cache hit ratio is the change in the users cache.gets counters over the measured window.
+ * Usage: {@code mvn -Ploadtest test-compile exec:java -Dexec.args="--rate=2000 --duration=2m"}
+ */
+public final class LoadGenerator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int SEED_CHUNK = 1000;
+    private static final String[] DESIGNATIONS = {"Engineer", "Senior Engineer", "Manager", "Analyst", "Architect"};
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final OperationStats total = new OperationStats();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicLong createdUsers = new AtomicLong();
+    private long[] ids;
+    private ToIntFunction<SplittableRandom> keys;
+
+    private LoadGenerator(LoadTestOptions options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<Operation> active = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int sum = 0;
+        for (Map.Entry<Operation, Integer> entry : options.mix().entrySet()) {
+            if (entry.getValue() > 0) {
+                sum += entry.getValue();
+                active.add(entry.getKey());
+                cumulative.add(sum);
+                stats.put(entry.getKey(), new OperationStats());
+            }
+        }
+        this.operations = active.toArray(Operation[]::new);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator(LoadTestOptions.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        ids = options.seed() ? seedUsers() : existingIds();
+        if (ids.length < 2) {
+            throw new IllegalStateException("Need at least 2 users to run against, found " + ids.length);
+        }
+        // Shuffle so the hottest Zipfian ranks are not simply the lowest IDs
+        shuffle(ids, new Random(options.randomSeed()));
+        ZipfianGenerator zipfian = "zipfian".equals(options.distribution())
+                ? new ZipfianGenerator(ids.length, options.zipfExponent()) : null;
+        keys = zipfian != null ? zipfian::next : random -> random.nextInt(ids.length);
+
+        System.out.printf("Running %s against %s: %d workers, %s, warmup %s, measure %s, %d keys (%s)%n",
+                options.openLoop() ? options.rate() + " req/s open loop" : "closed loop",
+                options.baseUrl(), options.concurrency(), options.mix(), options.warmup(), options.duration(),
+                ids.length, options.distribution());
+
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureStart = start + options.warmup().toNanos();
+        long end = measureStart + options.duration().toNanos();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < options.concurrency(); i++) {
+            int workerIndex = i;
+            Thread worker = new Thread(() -> work(workerIndex, start, measureStart, end), "loadgen-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        parkUntil(measureStart);
+        CacheCounters before = cacheCounters();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        CacheCounters after = cacheCounters();
+
+        double measuredSeconds = options.duration().toNanos() / 1e9;
+        Map<String, Object> report = report(measuredSeconds, before, after);
+        print(measuredSeconds, report);
+        Files.createDirectories(options.report().toAbsolutePath().getParent());
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(options.report().toFile(), report);
+        System.out.println("Report written to " + options.report().toAbsolutePath());
+    }
+
+    private void work(int workerIndex, long start, long measureStart, long end) {
+        SplittableRandom random = new SplittableRandom(options.randomSeed() * 31 + workerIndex);
+        double intervalNanos = options.openLoop() ? 1e9 / options.rate() : 0;
+        for (long slot = workerIndex; ; slot += options.concurrency()) {
+            long intended;
+            if (options.openLoop()) {
+                intended = start + (long) (slot * intervalNanos);
+                if (intended - end >= 0) {
+                    return;
+                }
+                parkUntil(intended);
+            } else {
+                intended = System.nanoTime();
+                if (intended - end >= 0) {
+                    return;
+                }
+            }
+            Operation operation = pick(random);
+            boolean error;
+            try {
+                HttpResponse<Void> response = client.send(request(operation, random), HttpResponse.BodyHandlers.discarding());
+                error = response.statusCode() >= 400;
+            } catch (IOException e) {
+                error = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long latency = System.nanoTime() - intended;
+            if (intended - measureStart >= 0) {
+                stats.get(operation).record(latency, error);
+                total.record(latency, error);
+            }
+        }
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        return switch (operation) {
+            case GET -> get("/users/" + nextId(random));
+            case LIST -> get("/users");
+            case BATCH -> {
+                StringJoiner batch = new StringJoiner(",");
+                for (int i = 0; i < options.batchSize(); i++) {
+                    batch.add(Long.toString(nextId(random)));
+                }
+                yield get("/users/batch?ids=" + batch);
+            }
+            case UPDATE -> {
+                long id = nextId(random);
+                yield send("PUT", "/users/" + id, userJson("loadtest-user-" + id, random));
+            }
+            case CREATE -> send("POST", "/users", userJson(newName(), random));
+            case BULK -> send("POST", "/users/bulk", usersJson(options.bulkSize(), random));
+        };
+    }
+
+    private long nextId(SplittableRandom random) {
+        return ids[keys.applyAsInt(random)];
+    }
+
+    private long[] seedUsers() throws IOException, InterruptedException {
+        System.out.printf("Seeding %d users through POST /users/bulk%n", options.keySpace());
+        SplittableRandom random = new SplittableRandom(options.randomSeed());
+        List<Long> seeded = new ArrayList<>(options.keySpace());
+        while (seeded.size() < options.keySpace()) {
+            int chunk = Math.min(SEED_CHUNK, options.keySpace() - seeded.size());
+            HttpResponse<String> response = client.send(send("POST", "/users/bulk", usersJson(chunk, random)),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode user : MAPPER.readTree(response.body())) {
+                seeded.add(user.get("id").asLong());
+            }
+        }
+        return seeded.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long[] existingIds() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(get("/users"), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /users failed with HTTP " + response.statusCode());
+        }
+        List<Long> existing = new ArrayList<>();
+        for (JsonNode user : MAPPER.readTree(response.body())) {
+            if (existing.size() == options.keySpace()) {
+                break;
+            }
+            existing.add(user.get("id").asLong());
+        }
+        return existing.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private CacheCounters cacheCounters() {
+        return new CacheCounters(counter("hit"), counter("miss"));
+    }
+
+    private double counter(String result) {
+        try {
+            HttpResponse<String> response = client.send(
+                    get("/actuator/metrics/cache.gets?tag=cache:users&tag=result:" + result),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            return MAPPER.readTree(response.body()).path("measurements").path(0).path("value").asDouble(Double.NaN);
+        } catch (IOException e) {
+            return Double.NaN;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Double.NaN;
+        }
+    }
+
+    private Map<String, Object> report(double measuredSeconds, CacheCounters before, CacheCounters after) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("url", options.baseUrl().toString());
+        settings.put("mode", options.openLoop() ? "open-loop" : "closed-loop");
+        settings.put("targetRate", options.rate());
+        settings.put("concurrency", options.concurrency());
+        settings.put("mix", options.mix());
+        settings.put("distribution", options.distribution());
+        settings.put("zipfExponent", options.zipfExponent());
+        settings.put("keys", ids.length);
+        settings.put("warmupSeconds", options.warmup().toSeconds());
+        settings.put("durationSeconds", options.duration().toSeconds());
+        report.put("settings", settings);
+        report.put("total", total.toReport(measuredSeconds));
+        Map<String, Object> perOperation = new LinkedHashMap<>();
+        stats.forEach((operation, operationStats) -> perOperation.put(operation.key(), operationStats.toReport(measuredSeconds)));
+        report.put("operations", perOperation);
+
+        double hits = after.hits() - before.hits();
+        double misses = after.misses() - before.misses();
+        Map<String, Object> cache = new LinkedHashMap<>();
+        if (Double.isNaN(hits) || Double.isNaN(misses)) {
+            cache.put("available", false);
+        } else {
+            cache.put("hits", (long) hits);
+            cache.put("misses", (long) misses);
+            cache.put("hitRatio", hits + misses > 0 ? Math.round(hits / (hits + misses) * 10_000) / 10_000.0 : null);
+        }
+        report.put("cache", cache);
+        return report;
+    }
+
+    private void print(double measuredSeconds, Map<String, Object> report) {
+        System.out.printf("%n%-8s %10s %8s %10s %9s %9s %9s %9s%n",
+                "op", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        stats.forEach((operation, operationStats) -> printRow(operation.key(), operationStats, measuredSeconds));
+        printRow("total", total, measuredSeconds);
+        System.out.println("cache: " + report.get("cache"));
+        if (options.openLoop() && total.count() < options.rate() * measuredSeconds * 0.95) {
+            System.out.println("WARNING: achieved rate is below the target; the server (or the generator) fell behind "
+                    + "and the latencies above include the time requests waited for their slot.");
+        }
+    }
+
+    private static void printRow(String name, OperationStats operationStats, double measuredSeconds) {
+        System.out.printf("%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", name,
+                operationStats.count(), operationStats.errors(), operationStats.count() / measuredSeconds,
+                operationStats.percentileMillis(50), operationStats.percentileMillis(99),
+                operationStats.percentileMillis(99.9), operationStats.percentileMillis(100));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(options.baseUrl() + path);
+    }
+
+    private String usersJson(int count, SplittableRandom random) {
+        StringJoiner users = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < count; i++) {
+            users.add(userJson(newName(), random));
+        }
+        return users.toString();
+    }
+
+    private String newName() {
+        return "loadtest-new-" + ProcessHandle.current().pid() + "-" + createdUsers.incrementAndGet();
+    }
+
+    private static String userJson(String name, SplittableRandom random) {
+        return "{\"name\":\"" + name + "\",\"email\":\"" + name + "@example.com\",\"designation\":\""
+                + DESIGNATIONS[random.nextInt(DESIGNATIONS.length)] + "\"}";
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static void shuffle(long[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    private record CacheCounters(double hits, double misses) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.poc.redis.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line options, given as {@code --name=value}. Anything not given keeps its default.
+ */
+record LoadTestOptions(URI baseUrl,
+                       Map<Operation, Integer> mix,
+                       String distribution,
+                       double zipfExponent,
+                       int keySpace,
+                       boolean seed,
+                       int concurrency,
+                       int rate,
+                       Duration warmup,
+                       Duration duration,
+                       int batchSize,
+                       int bulkSize,
+                       long randomSeed,
+                       Path report) {
+
+    static final String DEFAULT_MIX = "get:90,list:1,batch:3,update:4,create:1,bulk:1";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                URI.create(stripTrailingSlash(values.getOrDefault("url", "http://localhost:9090"))),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                values.getOrDefault("distribution", "zipfian"),
+                Double.parseDouble(values.getOrDefault("zipf-exponent", "0.99")),
+                Integer.parseInt(values.getOrDefault("keys", "10000")),
+                Boolean.parseBoolean(values.getOrDefault("seed", "true")),
+                Integer.parseInt(values.getOrDefault("concurrency", "64")),
+                Integer.parseInt(values.getOrDefault("rate", "0")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                Integer.parseInt(values.getOrDefault("batch-size", "10")),
+                Integer.parseInt(values.getOrDefault("bulk-size", "100")),
+                Long.parseLong(values.getOrDefault("random-seed", "42")),
+                Path.of(values.getOrDefault("report", "target/loadtest-report.json")));
+        options.validate();
+        return options;
+    }
+
+    boolean openLoop() {
+        return rate > 0;
+    }
+
+    private void validate() {
+        if (!"zipfian".equals(distribution) && !"uniform".equals(distribution)) {
+            throw new IllegalArgumentException("distribution must be zipfian or uniform, got " + distribution);
+        }
+        if (concurrency < 1 || keySpace < 2 || batchSize < 1 || bulkSize < 1 || rate < 0) {
+            throw new IllegalArgumentException("concurrency, batch-size and bulk-size must be >= 1, keys >= 2, rate >= 0");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix must have at least one positive weight");
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like get:90, got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must be >= 0, got: " + entry);
+            }
+            mix.put(Operation.fromKey(parts[0].trim()), weight);
+        }
+        return mix;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,38 @@
+package com.poc.redis.loadtest;
+
+/**
+ * Request types the generator can issue against UserController
+ */
+enum Operation {
+    GET("get", "GET /users/{id}"),
+    LIST("list", "GET /users"),
+    BATCH("batch", "GET /users/batch"),
+    UPDATE("update", "PUT /users/{id}"),
+    CREATE("create", "POST /users"),
+    BULK("bulk", "POST /users/bulk");
+
+    private final String key;
+    private final String description;
+
+    Operation(String key, String description) {
+        this.key = key;
+        this.description = description;
+    }
+
+    String key() {
+        return key;
+    }
+
+    String description() {
+        return description;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + key + "', expected one of get, list, batch, update, create, bulk");
+    }
+}
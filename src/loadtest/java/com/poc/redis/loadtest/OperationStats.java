@@ -0,0 +1,55 @@
+package com.poc.redis.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microseconds, 3 significant digits) and error count for one operation
+ */
+final class OperationStats {
+
+    private final Histogram histogram = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, boolean error) {
+        histogram.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    long count() {
+        return histogram.getTotalCount();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    Map<String, Object> toReport(double measuredSeconds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", count());
+        report.put("errors", errors());
+        report.put("throughputPerSecond", round(count() / measuredSeconds));
+        report.put("meanMs", round(histogram.getMean() / 1000.0));
+        report.put("p50Ms", percentileMillis(50));
+        report.put("p90Ms", percentileMillis(90));
+        report.put("p99Ms", percentileMillis(99));
+        report.put("p999Ms", percentileMillis(99.9));
+        report.put("maxMs", histogram.getMaxValue() / 1000.0);
+        return report;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.poc.redis.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zipfian rank generator (Gray et al., as used by YCSB): rank 0 is the most popular item.
+ * The zeta constant is computed once, so each draw is O(1).
+ */
+final class ZipfianGenerator {
+
+    private final int items;
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+
+    ZipfianGenerator(int items, double theta) {
+        if (items < 2) {
+            throw new IllegalArgumentException("Zipfian needs at least 2 items, got " + items);
+        }
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Zipfian exponent must be in (0, 1), got " + theta);
+        }
+        this.items = items;
+        this.theta = theta;
+        this.zetaN = zeta(items, theta);
+        this.alpha = 1.0 / (1.0 - theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+    }
+
+    int next(SplittableRandom random) {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, theta)) {
+            return 1;
+        }
+        int rank = (int) (items * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(rank, items - 1);
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
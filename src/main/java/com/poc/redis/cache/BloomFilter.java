@@ -0,0 +1,112 @@
+package com.poc.redis.cache;
+
+/**
+ * Geometry and hashing of a Bloom filter over long IDs, laid out as a Redis bitmap.
+ * <ul>
+ *   <li>Sized for expectedInsertions at falsePositiveRate: m = -n ln p / (ln 2)^2 bits and
+ *       k = m / n ln 2 hash functions; more insertions than expected raise the false-positive rate.</li>
+ *   <li>The first 64 bits are a header: offset 0 is a marker set when the filter is built, so a
+ *       missing or flushed bitmap (all zeros) is never mistaken for "no IDs exist"; bits 8-39 hold
+ *       m and bits 40-47 hold k (BITFIELD u32 / u8), so a bitmap built with other settings is
+ *       recognised instead of being probed at the wrong offsets.</li>
+ *   <li>The k offsets of an ID come from one 64-bit mix split into two halves (double hashing).</li>
+ * </ul>
+ */
+public final class BloomFilter {
+
+    public static final long MARKER_OFFSET = 0;
+    public static final long BITS_OFFSET = 8;
+    public static final long HASHES_OFFSET = 40;
+    public static final long HEADER_BITS = 64;
+
+    // Redis bitmaps are strings of at most 512 MB
+    private static final long MAX_BITS = (1L << 32) - 1 - HEADER_BITS;
+
+    private final long bits;
+    private final int hashes;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        this.bits = Math.min(MAX_BITS, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+    }
+
+    public long getBits() {
+        return bits;
+    }
+
+    public int getHashes() {
+        return hashes;
+    }
+
+    /**
+     * Whether a bitmap whose header holds these values was built with this geometry
+     */
+    public boolean matches(long storedBits, long storedHashes) {
+        return storedBits == bits && storedHashes == hashes;
+    }
+
+    /**
+     * Bitmap offsets for the ID, all past the header
+     */
+    public long[] offsets(long id) {
+        long hash = mix(id);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        long[] offsets = new long[hashes];
+        for (int i = 0; i < hashes; i++) {
+            long combined = (h1 + (i + 1) * h2) & Long.MAX_VALUE;
+            offsets[i] = HEADER_BITS + combined % bits;
+        }
+        return offsets;
+    }
+
+    /**
+     * Redis-compatible bitmap (bit 0 is the most significant bit of byte 0) with the header and
+     * the given IDs set
+     */
+    public byte[] bitmap(long[] ids, int count) {
+        byte[] bitmap = new byte[(int) ((HEADER_BITS + bits + 7) >>> 3)];
+        setBit(bitmap, MARKER_OFFSET);
+        // Byte-aligned, big-endian like BITFIELD
+        int bitsAt = (int) (BITS_OFFSET >>> 3);
+        for (int i = 0; i < 4; i++) {
+            bitmap[bitsAt + i] = (byte) (bits >>> (24 - 8 * i));
+        }
+        bitmap[(int) (HASHES_OFFSET >>> 3)] = (byte) hashes;
+        for (int i = 0; i < count; i++) {
+            for (long offset : offsets(ids[i])) {
+                setBit(bitmap, offset);
+            }
+        }
+        return bitmap;
+    }
+
+    static void setBit(byte[] bitmap, long offset) {
+        bitmap[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+    }
+
+    static long readHeader(byte[] bitmap, long offset, int width) {
+        long value = 0;
+        for (int i = 0; i < width; i++) {
+            value = (value << 1) | (getBit(bitmap, offset + i) ? 1 : 0);
+        }
+        return value;
+    }
+
+    static boolean getBit(byte[] bitmap, long offset) {
+        return (bitmap[(int) (offset >>> 3)] & (0x80 >>> (offset & 7))) != 0;
+    }
+
+    // MurmurHash3 fmix64: sequential IDs land on unrelated offsets
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
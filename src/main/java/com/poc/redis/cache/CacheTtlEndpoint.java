@@ -0,0 +1,52 @@
+package com.poc.redis.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/cachettl - effective TTL rules, and runtime overrides shared by all instances
+ * <ul>
+ *   <li>POST {"cache": "users", "pattern": "all-users", "ttl": "30s"} sets an override</li>
+ *   <li>DELETE ?cache=users&amp;pattern=all-users removes it</li>
+ * </ul>
+ * Overrides apply to entries written afterwards; existing entries keep their TTL.
+ * Not exposed over HTTP by default since it changes every instance's cache behaviour.
+ */
+@Component
+@Endpoint(id = "cachettl")
+public class CacheTtlEndpoint {
+
+    @Autowired
+    private CacheTtlPolicy cacheTtlPolicy;
+
+    @ReadOperation
+    public Map<String, Object> rules() {
+        return cacheTtlPolicy.describe();
+    }
+
+    @WriteOperation
+    public Map<String, Object> setOverride(String cache, @Nullable String pattern, String ttl) {
+        try {
+            cacheTtlPolicy.setOverride(cache, pattern, DurationStyle.detectAndParse(ttl));
+        } catch (IllegalArgumentException e) {
+            // Answered with 400 instead of 500
+            throw new InvalidEndpointRequestException(e.getMessage(), "Invalid ttl '" + ttl + "'");
+        }
+        return cacheTtlPolicy.describe();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> removeOverride(String cache, @Nullable String pattern) {
+        cacheTtlPolicy.removeOverride(cache, pattern);
+        return cacheTtlPolicy.describe();
+    }
+}
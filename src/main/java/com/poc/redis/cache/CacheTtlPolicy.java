@@ -0,0 +1,236 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.config.ApplicationProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.PatternMatchUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-cache and per-key-pattern entry TTLs.
+ * <ul>
+ *   <li>Resolution order: runtime override for a key pattern, configured key pattern,
+ *       runtime override for the cache, configured cache TTL, spring.data.redis.ttl.</li>
+ *   <li>Jitter shortens each TTL by a random fraction up to jitter, so entries written
+ *       together (bulk imports, warm-up) do not expire together; entries never outlive their TTL.</li>
+ *   <li>Runtime overrides live in a Redis hash (field {@code cache} or {@code cache::pattern},
+ *       value such as {@code 30s}) that every instance re-reads each refreshInterval.</li>
+ * </ul>
+ */
+@Slf4j
+public class CacheTtlPolicy {
+
+    static final String PATTERN_SEPARATOR = "::";
+
+    private final ApplicationProperties.Redis redisProperties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private volatile Map<String, Duration> overrides = Map.of();
+    // Replaced after overrides change, so rules are never cached against stale overrides
+    private volatile ConcurrentMap<String, Rules> rulesByCache = new ConcurrentHashMap<>();
+    private ScheduledExecutorService refresher;
+
+    public CacheTtlPolicy(ApplicationProperties.Redis redisProperties, StringRedisTemplate stringRedisTemplate) {
+        this.redisProperties = redisProperties;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * Cache configuration for one cache: its TTL function and, when configured, time-to-idle
+     */
+    public RedisCacheConfiguration apply(String cacheName, RedisCacheConfiguration configuration) {
+        RedisCacheConfiguration applied = configuration.entryTtl((key, value) -> timeToLive(cacheName, key));
+        ApplicationProperties.Redis.TtlPolicy.CacheTtl cacheTtl = policy().getCaches().get(cacheName);
+        if (cacheTtl != null && cacheTtl.isSlidingExpiry()) {
+            log.info("Sliding expiry enabled for cache '{}'", cacheName);
+            return applied.enableTimeToIdle();
+        }
+        return applied;
+    }
+
+    /**
+     * TTL for a new or touched entry, jitter applied
+     */
+    public Duration timeToLive(String cacheName, Object key) {
+        Rules rules = rules(cacheName);
+        Duration ttl = rules.baseTimeToLive(key);
+        if (ttl == null || ttl.isZero() || ttl.isNegative() || rules.jitter() <= 0) {
+            return ttl;
+        }
+        long millis = ttl.toMillis();
+        long cut = (long) (millis * rules.jitter() * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(Math.max(1, millis - cut));
+    }
+
+    /**
+     * Shortest TTL the entry can have been given, for callers that schedule work before expiry
+     */
+    public Duration minTimeToLive(String cacheName, Object key) {
+        Rules rules = rules(cacheName);
+        Duration ttl = rules.baseTimeToLive(key);
+        if (ttl == null || rules.jitter() <= 0) {
+            return ttl;
+        }
+        return Duration.ofMillis((long) (ttl.toMillis() * (1 - rules.jitter())));
+    }
+
+    /**
+     * Configured rules and current overrides, for the actuator endpoint
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("defaultTtl", redisProperties.getTtl());
+        description.put("jitter", policy().getJitter());
+        description.put("caches", policy().getCaches());
+        description.put("overrides", overrides);
+        return description;
+    }
+
+    /**
+     * Stores an override for every instance; a zero TTL would mean no expiry, so only positive TTLs are accepted
+     */
+    public void setOverride(String cacheName, String pattern, Duration ttl) {
+        if (!isPositive(ttl)) {
+            throw new IllegalArgumentException("Cache TTL override must be positive, got " + ttl);
+        }
+        stringRedisTemplate.opsForHash().put(policy().getOverrides().getKey(), field(cacheName, pattern),
+                DurationStyle.SIMPLE.print(ttl));
+        refresh();
+    }
+
+    public void removeOverride(String cacheName, String pattern) {
+        stringRedisTemplate.opsForHash().delete(policy().getOverrides().getKey(), field(cacheName, pattern));
+        refresh();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ApplicationProperties.Redis.TtlPolicy.Overrides settings = policy().getOverrides();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-ttl-overrides");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = settings.getRefreshInterval().toMillis();
+        refresher.scheduleWithFixedDelay(this::refresh, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    void refresh() {
+        try {
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(policy().getOverrides().getKey());
+            updateOverrides(parse(entries));
+        } catch (Exception e) {
+            // Keep the last overrides we saw
+            log.debug("Cache TTL override refresh failed: {}", e.getMessage());
+        }
+    }
+
+    void updateOverrides(Map<String, Duration> latest) {
+        if (latest.equals(overrides)) {
+            return;
+        }
+        log.info("Cache TTL overrides changed: {} -> {}", overrides, latest);
+        overrides = Map.copyOf(latest);
+        rulesByCache = new ConcurrentHashMap<>();
+    }
+
+    static Map<String, Duration> parse(Map<Object, Object> entries) {
+        Map<String, Duration> parsed = new HashMap<>();
+        entries.forEach((field, value) -> {
+            try {
+                Duration ttl = DurationStyle.detectAndParse(value.toString());
+                if (!isPositive(ttl)) {
+                    throw new IllegalArgumentException("TTL must be positive");
+                }
+                parsed.put(field.toString(), ttl);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring cache TTL override {}={}: {}", field, value, e.getMessage());
+            }
+        });
+        return parsed;
+    }
+
+    private Rules rules(String cacheName) {
+        return rulesByCache.computeIfAbsent(cacheName, this::buildRules);
+    }
+
+    private Rules buildRules(String cacheName) {
+        ApplicationProperties.Redis.TtlPolicy.CacheTtl cacheTtl = policy().getCaches().get(cacheName);
+        Map<String, Duration> current = overrides;
+        List<PatternTtl> patterns = new ArrayList<>();
+        String patternPrefix = cacheName + PATTERN_SEPARATOR;
+        current.forEach((field, ttl) -> {
+            if (field.startsWith(patternPrefix)) {
+                patterns.add(new PatternTtl(field.substring(patternPrefix.length()), ttl));
+            }
+        });
+        if (cacheTtl != null) {
+            for (ApplicationProperties.Redis.TtlPolicy.KeyPattern keyPattern : cacheTtl.getKeyPatterns()) {
+                patterns.add(new PatternTtl(keyPattern.getPattern(), keyPattern.getTtl()));
+            }
+        }
+        Duration ttl = current.get(cacheName);
+        if (ttl == null) {
+            ttl = cacheTtl != null && cacheTtl.getTtl() != null ? cacheTtl.getTtl() : redisProperties.getTtl();
+        }
+        double jitter = cacheTtl != null && cacheTtl.getJitter() != null ? cacheTtl.getJitter() : policy().getJitter();
+        return new Rules(ttl, Math.min(Math.max(jitter, 0), 1), List.copyOf(patterns));
+    }
+
+    private static boolean isPositive(Duration ttl) {
+        return ttl != null && !ttl.isZero() && !ttl.isNegative();
+    }
+
+    private static String field(String cacheName, String pattern) {
+        return pattern == null || pattern.isEmpty() ? cacheName : cacheName + PATTERN_SEPARATOR + pattern;
+    }
+
+    private ApplicationProperties.Redis.TtlPolicy policy() {
+        return redisProperties.getTtlPolicy();
+    }
+
+    private record PatternTtl(String pattern, Duration ttl) {
+    }
+
+    private record Rules(Duration ttl, double jitter, List<PatternTtl> patterns) {
+
+        Duration baseTimeToLive(Object key) {
+            if (patterns.isEmpty() || key == null) {
+                return ttl;
+            }
+            String keyString = key.toString();
+            for (PatternTtl pattern : patterns) {
+                if (PatternMatchUtils.simpleMatch(pattern.pattern(), keyString)) {
+                    return pattern.ttl();
+                }
+            }
+            return ttl;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Keeps a Redis outage from failing cache callers.
+ * <ul>
+ *   <li>Reads that fail, or arrive while the circuit is open, are misses, so
+ *       {@code @Cacheable} falls through to the database.</li>
+ *   <li>Writes and evictions that fail or are skipped are handed to the breaker, which evicts
+ *       those keys before Redis is used again.</li>
+ * </ul>
+ * Sits directly on the Redis cache, below the near cache and stampede protection, so an outage
+ * still gets single-flight loading and keeps serving L1 copies.
+ */
+@Slf4j
+public class CircuitBreakerCache implements Cache {
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public CircuitBreakerCache(Cache delegate, RedisCircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (!circuitBreaker.allowRequest()) {
+            return null;
+        }
+        try {
+            ValueWrapper value = delegate.get(key);
+            circuitBreaker.recordSuccess();
+            return value;
+        } catch (RuntimeException e) {
+            failed("read", key, e);
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        write("write", key, () -> delegate.put(key, value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper[] existing = new ValueWrapper[1];
+        write("write", key, () -> existing[0] = delegate.putIfAbsent(key, value));
+        return existing[0];
+    }
+
+    @Override
+    public void evict(Object key) {
+        write("eviction", key, () -> delegate.evict(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean[] evicted = new boolean[1];
+        write("eviction", key, () -> evicted[0] = delegate.evictIfPresent(key));
+        return evicted[0];
+    }
+
+    @Override
+    public void clear() {
+        write("clear", null, delegate::clear);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean[] invalidated = new boolean[1];
+        write("clear", null, () -> invalidated[0] = delegate.invalidate());
+        return invalidated[0];
+    }
+
+    /**
+     * Runs the write unless the circuit is open; a skipped or failed write is deferred
+     * (key null: the whole cache)
+     */
+    private void write(String operation, Object key, Runnable action) {
+        if (circuitBreaker.allowRequest()) {
+            try {
+                action.run();
+                circuitBreaker.recordSuccess();
+                return;
+            } catch (RuntimeException e) {
+                failed(operation, key != null ? key : "*", e);
+            }
+        }
+        if (key != null) {
+            circuitBreaker.deferEviction(delegate, key);
+        } else {
+            circuitBreaker.deferClear(delegate);
+        }
+    }
+
+    private void failed(String operation, Object key, RuntimeException e) {
+        if (!circuitBreaker.recordFailure(e)) {
+            // Not an outage (e.g. a serialization error): let the caller see it
+            throw e;
+        }
+        log.warn("Cache {} for {}::{} skipped, Redis unavailable: {}", operation, getName(), key, e.getMessage());
+    }
+}
@@ -0,0 +1,141 @@
+package com.poc.redis.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.DataAccessException;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Stores the entity values of a cache as Redis hashes through a {@link RedisHashStore}.
+ * <ul>
+ *   <li>Values of the entity type are written field by field. Any other value, such as
+ *       the all-users list, is stored by the delegate RedisCache as before.</li>
+ *   <li>Reads of numeric (ID) keys go to the hash store; a key that still holds a serialized
+ *       value falls back to the delegate. All other keys are read by the delegate.</li>
+ *   <li>Evict and clear delete keys of either kind through the delegate.</li>
+ * </ul>
+ * Sliding expiry is not applied to hash entries.
+ */
+@Slf4j
+public class HashBackedCache<T> implements Cache {
+
+    private final Cache delegate;
+    private final String keyPrefix;
+    private final Class<T> type;
+    private final RedisHashStore<T> store;
+    private final CacheTtlPolicy ttlPolicy;
+
+    public HashBackedCache(Cache delegate, String keyPrefix, Class<T> type, RedisHashStore<T> store,
+                           CacheTtlPolicy ttlPolicy) {
+        this.delegate = delegate;
+        this.keyPrefix = keyPrefix;
+        this.type = type;
+        this.store = store;
+        this.ttlPolicy = ttlPolicy;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (!(key instanceof Number)) {
+            return delegate.get(key);
+        }
+        try {
+            T value = store.get(redisKey(key));
+            return value != null ? new SimpleValueWrapper(value) : null;
+        } catch (DataAccessException e) {
+            // Only WRONGTYPE means the key was written as a serialized value before this cache
+            // switched to hashes; timeouts and connection errors must reach the circuit breaker
+            if (!RedisHashStore.isWrongType(e)) {
+                throw e;
+            }
+            log.debug("Reading {}::{} as a serialized value: {}", getName(), key, e.getMessage());
+            return delegate.get(key);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> V get(Object key, Class<V> requiredType) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && requiredType != null && !requiredType.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + requiredType.getName() + "]: " + value);
+        }
+        return (V) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> V get(Object key, Callable<V> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (V) wrapper.get();
+        }
+        V value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (type.isInstance(value)) {
+            store.put(redisKey(key), type.cast(value), ttlPolicy.timeToLive(getName(), key));
+        } else {
+            delegate.put(key, value);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        if (!type.isInstance(value)) {
+            return delegate.putIfAbsent(key, value);
+        }
+        if (store.putIfAbsent(redisKey(key), type.cast(value), ttlPolicy.timeToLive(getName(), key))) {
+            return null;
+        }
+        return get(key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private String redisKey(Object key) {
+        return keyPrefix + key;
+    }
+}
@@ -0,0 +1,164 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.hotkey.HotKeyDetector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feeds sampled reads to the {@link HotKeyDetector} and, when promotion is on, serves keys it
+ * reports as hot from a small in-process store.
+ * <ul>
+ *   <li>A hot key is pinned when one of its sampled reads returns a value, for pinTtl.</li>
+ *   <li>Local puts and evictions unpin immediately; writes made on other instances are
+ *       seen once the pin expires, so pinTtl is the staleness bound.</li>
+ *   <li>{@link #unpinAll()} drops every pin, e.g. when keys were removed outside the cache API.</li>
+ *   <li>With nothing pinned a read does no local lookup at all.</li>
+ * </ul>
+ */
+public class HotKeyCache implements Cache {
+
+    private final Cache delegate;
+    private final HotKeyDetector detector;
+    private final NearCache pinned;
+
+    private final LongAdder pinnedHits = new LongAdder();
+
+    /**
+     * @param pinned store for promoted keys, or null to only detect
+     */
+    public HotKeyCache(Cache delegate, HotKeyDetector detector, NearCache pinned) {
+        this.delegate = delegate;
+        this.detector = detector;
+        this.pinned = pinned;
+    }
+
+    public double getPinnedHits() {
+        return pinnedHits.sum();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object local = pinnedValue(key);
+        if (local != null) {
+            return new SimpleValueWrapper(local);
+        }
+        ValueWrapper value = delegate.get(key);
+        if (value != null) {
+            recordRead(key, value.get());
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Object local = pinnedValue(key);
+        if (local != null && (type == null || type.isInstance(local))) {
+            return (T) local;
+        }
+        T value = delegate.get(key, type);
+        recordRead(key, value);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object local = pinnedValue(key);
+        if (local != null) {
+            return (T) local;
+        }
+        T value = delegate.get(key, valueLoader);
+        recordRead(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        unpin(key);
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        unpin(key);
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        unpin(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        unpin(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        unpinAll();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        unpinAll();
+        return delegate.invalidate();
+    }
+
+    /**
+     * Drops every pinned copy; the keys are read from Redis again until they are promoted anew
+     */
+    public void unpinAll() {
+        if (pinned != null) {
+            pinned.clear();
+        }
+    }
+
+    private Object pinnedValue(Object key) {
+        if (pinned == null || pinned.size() == 0) {
+            return null;
+        }
+        Object value = pinned.get(String.valueOf(key));
+        if (value != null) {
+            pinnedHits.increment();
+            // Keep counting while pinned, or the key would cool down in the detector
+            if (detector.sample()) {
+                detector.record(getName(), key);
+            }
+        }
+        return value;
+    }
+
+    private void recordRead(Object key, Object value) {
+        if (!detector.sample()) {
+            return;
+        }
+        boolean hot = detector.record(getName(), key);
+        if (hot && pinned != null && value != null) {
+            pinned.put(String.valueOf(key), value);
+        }
+    }
+
+    private void unpin(Object key) {
+        if (pinned != null && pinned.size() > 0) {
+            pinned.evict(String.valueOf(key));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.poc.redis.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * On-disk list of hot numeric cache keys.
+ * Layout: magic "HKS1", varint count, the sorted IDs as varint deltas, CRC32 of everything before it.
+ * 100k sequential-ish IDs take a few hundred KB at most; written to a temp file and moved into place.
+ */
+public final class HotKeySnapshot {
+
+    private static final int MAGIC = 0x484B5331; // "HKS1"
+
+    private HotKeySnapshot() {
+    }
+
+    public static void write(Path path, long[] ids) throws IOException {
+        long[] sorted = Arrays.stream(ids).filter(id -> id >= 0).sorted().distinct().toArray();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc)))) {
+            out.writeInt(MAGIC);
+            writeVarLong(out, sorted.length);
+            long previous = 0;
+            for (long id : sorted) {
+                writeVarLong(out, id - previous);
+                previous = id;
+            }
+            out.flush();
+            // Checksum covers the bytes written so far; the CRC itself is not part of it
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Sorted IDs from the snapshot; IOException when it is missing, truncated, corrupt
+     * or claims more than maxIds entries (checked before anything is allocated)
+     */
+    public static long[] read(Path path, int maxIds) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path))) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a hot-key snapshot: " + path);
+            }
+            long count = readVarLong(in);
+            if (count < 0 || count > maxIds) {
+                throw new IOException("Snapshot size " + count + " exceeds the limit of " + maxIds + " in " + path);
+            }
+            long[] ids = new long[(int) count];
+            long previous = 0;
+            for (int i = 0; i < ids.length; i++) {
+                previous += readVarLong(in);
+                ids[i] = previous;
+            }
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(file).readInt() != expected) {
+                throw new IOException("Checksum mismatch in " + path);
+            }
+            return ids;
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated hot-key snapshot");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in hot-key snapshot");
+    }
+}
@@ -0,0 +1,167 @@
+package com.poc.redis.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Two-tier cache: a {@link NearCache} L1 in front of the Redis-backed L2.
+ * Every local write or eviction is published so other instances can drop their L1 copy.
+ */
+public class LayeredCache implements Cache {
+
+    static final String ALL_KEYS = "";
+
+    private final Cache delegate;
+    private final NearCache nearCache;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    final LongAdder l1Hits = new LongAdder();
+    final LongAdder l1Misses = new LongAdder();
+    final LongAdder l2Hits = new LongAdder();
+    final LongAdder l2Misses = new LongAdder();
+
+    public LayeredCache(Cache delegate, NearCache nearCache, BiConsumer<String, String> invalidationPublisher) {
+        this.delegate = delegate;
+        this.nearCache = nearCache;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object local = nearCache.get(localKey);
+        if (local != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(local);
+        }
+        l1Misses.increment();
+
+        ValueWrapper remote = delegate.get(key);
+        if (remote == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        if (remote.get() != null) {
+            nearCache.put(localKey, remote.get());
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        String localKey = localKey(key);
+        if (value != null) {
+            nearCache.put(localKey, value);
+        } else {
+            nearCache.evict(localKey);
+        }
+        invalidationPublisher.accept(getName(), localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        String localKey = localKey(key);
+        nearCache.evict(localKey);
+        invalidationPublisher.accept(getName(), localKey);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        String localKey = localKey(key);
+        nearCache.evict(localKey);
+        invalidationPublisher.accept(getName(), localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        String localKey = localKey(key);
+        nearCache.evict(localKey);
+        invalidationPublisher.accept(getName(), localKey);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        nearCache.clear();
+        invalidationPublisher.accept(getName(), ALL_KEYS);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        nearCache.clear();
+        invalidationPublisher.accept(getName(), ALL_KEYS);
+        return invalidated;
+    }
+
+    /**
+     * Drops the L1 copy after another instance changed the entry
+     */
+    void invalidateLocal(String localKey) {
+        if (ALL_KEYS.equals(localKey)) {
+            nearCache.clear();
+        } else {
+            nearCache.evict(localKey);
+        }
+    }
+
+    int localSize() {
+        return nearCache.size();
+    }
+
+    // Same string form RedisCache uses for simple keys, so local and remote keys line up
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,131 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.config.ApplicationProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps the Redis cache manager with a per-instance L1 for every cache.
+ * L1 copies are kept coherent across instances through a pub/sub invalidation channel;
+ * messages published by this instance are ignored on receipt. A message for cache "*" (see
+ * {@link #clearAllMessage()}) clears every L1 on every instance, including the sender.
+ */
+@Slf4j
+public class LayeredCacheManager implements CacheManager, MessageListener {
+
+    private static final String ALL_CACHES = "*";
+    // Origin of messages that are not published by a LayeredCacheManager, so no instance skips them
+    private static final String EXTERNAL_ORIGIN = "external";
+
+    private final CacheManager delegate;
+    private final ApplicationProperties.Redis.NearCache properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, LayeredCache> caches = new ConcurrentHashMap<>();
+
+    public LayeredCacheManager(CacheManager delegate,
+                               ApplicationProperties.Redis.NearCache properties,
+                               StringRedisTemplate stringRedisTemplate,
+                               MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        LayeredCache existing = caches.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> register(new LayeredCache(target,
+                new NearCache(properties.getMaxSize(), properties.getTtl()), this::publish)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        if (ALL_CACHES.equals(parts[1])) {
+            caches.values().forEach(cache -> cache.invalidateLocal(LayeredCache.ALL_KEYS));
+            return;
+        }
+        LayeredCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2]);
+        }
+    }
+
+    /**
+     * Invalidation payload that clears every near cache, for code that removes keys behind the caches' back
+     */
+    public static String clearAllMessage() {
+        return EXTERNAL_ORIGIN + "|" + ALL_CACHES + "|" + LayeredCache.ALL_KEYS;
+    }
+
+    /**
+     * Whether a message on the invalidation channel asks every instance to drop all local copies
+     */
+    public static boolean isClearAll(Message message) {
+        return clearAllMessage().equals(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            stringRedisTemplate.convertAndSend(properties.getInvalidationChannel(),
+                    instanceId + "|" + cacheName + "|" + key);
+        } catch (Exception e) {
+            // Remote L1 copies still expire after the near-cache TTL
+            log.warn("Failed to publish near-cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private LayeredCache register(LayeredCache cache) {
+        String name = cache.getName();
+        counter(cache.l1Hits, name, "l1", "hit");
+        counter(cache.l1Misses, name, "l1", "miss");
+        counter(cache.l2Hits, name, "l2", "hit");
+        counter(cache.l2Misses, name, "l2", "miss");
+        Gauge.builder("cache.layer.size", cache, LayeredCache::localSize)
+                .tag("cache", name)
+                .tag("layer", "l1")
+                .register(meterRegistry);
+        log.info("Near cache enabled for '{}' (maxSize={}, ttl={})", name, properties.getMaxSize(), properties.getTtl());
+        return cache;
+    }
+
+    private void counter(LongAdder adder, String cacheName, String layer, String result) {
+        FunctionCounter.builder("cache.layer.gets", adder, LongAdder::sum)
+                .tag("cache", cacheName)
+                .tag("layer", layer)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,85 @@
+package com.poc.redis.cache;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-limited in-process store used as the L1 of a {@link LayeredCache}.
+ * Reads are lock-free; once the store grows past its size limit the oldest
+ * inserted entries are dropped first.
+ */
+public class NearCache {
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Node> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final int maxSize;
+    private final long ttlNanos;
+
+    public NearCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Near cache max size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns the live value for the key, or null when absent or expired
+     */
+    public Object get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos > 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(String key, Object value) {
+        long seq = sequence.incrementAndGet();
+        entries.put(key, new Entry(value, System.nanoTime() + ttlNanos, seq));
+        insertionOrder.offer(new Node(key, seq));
+        queued.incrementAndGet();
+        evictOverflow();
+    }
+
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictOverflow() {
+        // Re-puts leave stale nodes behind, so the queue is bounded separately from the map
+        while (entries.size() > maxSize || queued.get() > 2 * maxSize) {
+            Node oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            entries.computeIfPresent(oldest.key, (k, current) -> current.sequence == oldest.sequence ? null : current);
+        }
+    }
+
+    private record Entry(Object value, long expiresAtNanos, long sequence) {
+    }
+
+    private record Node(String key, long sequence) {
+    }
+}
@@ -0,0 +1,253 @@
+package com.poc.redis.cache;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Entities stored as Redis hashes, one field per property.
+ * <ul>
+ *   <li>Writes send every field, but a script applies only the ones that changed (HSET) and
+ *       drops the ones that disappeared (HDEL), so replicas and the AOF see the delta.</li>
+ *   <li>A key still holding a serialized value (from before the cache switched to hashes) is
+ *       replaced on write; reading it fails with WRONGTYPE (see {@link #isWrongType}), which
+ *       callers treat as a miss.</li>
+ *   <li>Bulk calls are pipelined; in cluster mode they run one key at a time. A pipeline cannot
+ *       fall back from EVALSHA to EVAL, so the script is loaded first and a NOSCRIPT reply
+ *       (script cache flushed, failover) makes the batch rerun key by key.</li>
+ * </ul>
+ */
+public class RedisHashStore<T> {
+
+    // KEYS[1] = key, ARGV[1] = TTL in ms (0 = no expiry), ARGV[2..] = field/value pairs
+    private static final RedisScript<Long> WRITE = new DefaultRedisScript<>("""
+            if redis.call('type', KEYS[1]).ok ~= 'hash' then redis.call('del', KEYS[1]) end
+            local stale = {}
+            local current = redis.call('hgetall', KEYS[1])
+            for i = 1, #current, 2 do stale[current[i]] = current[i + 1] end
+            local changed = {}
+            for i = 2, #ARGV, 2 do
+              if stale[ARGV[i]] ~= ARGV[i + 1] then
+                changed[#changed + 1] = ARGV[i]
+                changed[#changed + 1] = ARGV[i + 1]
+              end
+              stale[ARGV[i]] = nil
+            end
+            local removed = {}
+            for field in pairs(stale) do removed[#removed + 1] = field end
+            if #removed > 0 then redis.call('hdel', KEYS[1], unpack(removed)) end
+            if #changed > 0 then redis.call('hset', KEYS[1], unpack(changed)) end
+            if tonumber(ARGV[1]) > 0 then redis.call('pexpire', KEYS[1], ARGV[1]) else redis.call('persist', KEYS[1]) end
+            return #changed / 2
+            """, Long.class);
+
+    // Same arguments as WRITE; only writes when the key holds no hash (a value serialized before the
+    // switch to hashes reads as a miss, so it is replaced rather than kept forever)
+    private static final RedisScript<Long> WRITE_IF_ABSENT = new DefaultRedisScript<>("""
+            if #ARGV < 3 then return 0 end
+            local type = redis.call('type', KEYS[1]).ok
+            if type == 'hash' then return 0 end
+            if type ~= 'none' then redis.call('del', KEYS[1]) end
+            redis.call('hset', KEYS[1], unpack(ARGV, 2))
+            if tonumber(ARGV[1]) > 0 then redis.call('pexpire', KEYS[1], ARGV[1]) end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final HashMapper<T, String, String> mapper;
+    private final boolean pipelined;
+
+    public RedisHashStore(StringRedisTemplate stringRedisTemplate, HashMapper<T, String, String> mapper,
+                          boolean pipelined) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.mapper = mapper;
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * HGETALL; null when the key does not exist
+     */
+    public T get(String key) {
+        return mapper.fromHash(hashes().entries(key));
+    }
+
+    /**
+     * HMGET; values in the order of fields, null for fields the entity does not have
+     */
+    public List<String> getFields(String key, List<String> fields) {
+        return hashes().multiGet(key, fields);
+    }
+
+    /**
+     * Writes the entity; returns how many fields actually changed
+     */
+    public long put(String key, T value, Duration ttl) {
+        Long changed = stringRedisTemplate.execute(WRITE, List.of(key), arguments(value, ttl));
+        return changed != null ? changed : 0;
+    }
+
+    public boolean putIfAbsent(String key, T value, Duration ttl) {
+        Long written = stringRedisTemplate.execute(WRITE_IF_ABSENT, List.of(key), arguments(value, ttl));
+        return written != null && written == 1;
+    }
+
+    /**
+     * Entities for the keys that exist, in one pipelined round-trip
+     */
+    public Map<String, T> getAll(List<String> keys) {
+        Map<String, T> found = new HashMap<>();
+        if (!pipelined) {
+            for (String key : keys) {
+                putIfNotNull(found, key, get(key));
+            }
+            return found;
+        }
+        List<Object> replies;
+        try {
+            replies = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    HashOperations<String, String, String> hashes = ((RedisOperations<String, String>) operations).opsForHash();
+                    keys.forEach(hashes::entries);
+                    return null;
+                }
+            });
+        } catch (RedisPipelineException e) {
+            // Keys still holding serialized values are misses; any other error fails the batch
+            for (Object reply : e.getPipelineResult()) {
+                if (reply instanceof Exception error && !isWrongType(error)) {
+                    throw e;
+                }
+            }
+            replies = e.getPipelineResult();
+        }
+        for (int i = 0; i < replies.size(); i++) {
+            if (replies.get(i) instanceof Map<?, ?> hash) {
+                @SuppressWarnings("unchecked")
+                Map<String, String> fields = (Map<String, String>) hash;
+                putIfNotNull(found, keys.get(i), mapper.fromHash(fields));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes all entities in one pipelined round-trip
+     */
+    public void putAll(Map<String, T> entries, Function<T, Duration> ttl) {
+        writeAll(WRITE, entries, ttl);
+    }
+
+    /**
+     * Writes the entities whose keys do not exist yet, in one pipelined round-trip
+     */
+    public void putAllIfAbsent(Map<String, T> entries, Function<T, Duration> ttl) {
+        writeAll(WRITE_IF_ABSENT, entries, ttl);
+    }
+
+    private void writeAll(RedisScript<Long> script, Map<String, T> entries, Function<T, Duration> ttl) {
+        if (!pipelined || entries.isEmpty()) {
+            writeEach(script, entries, ttl);
+            return;
+        }
+        String sha = stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                connection.scriptingCommands().scriptLoad(bytes(script.getScriptAsString())));
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                entries.forEach((key, value) -> connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 1,
+                        keyAndArguments(key, arguments(value, ttl.apply(value)))));
+                return null;
+            });
+        } catch (RedisPipelineException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            // Both scripts are idempotent, so running them again for entries that went through is harmless
+            writeEach(script, entries, ttl);
+        }
+    }
+
+    private void writeEach(RedisScript<Long> script, Map<String, T> entries, Function<T, Duration> ttl) {
+        entries.forEach((key, value) -> stringRedisTemplate.execute(script, List.of(key), arguments(value, ttl.apply(value))));
+    }
+
+    /**
+     * The key holds something other than a hash, e.g. a value serialized before the switch to hashes
+     */
+    public static boolean isWrongType(Throwable error) {
+        return hasErrorCode(error, "WRONGTYPE");
+    }
+
+    static boolean isNoScript(Throwable error) {
+        return hasErrorCode(error, "NOSCRIPT");
+    }
+
+    private static boolean hasErrorCode(Throwable error, String code) {
+        if (error instanceof RedisPipelineException pipeline) {
+            for (Object reply : pipeline.getPipelineResult()) {
+                if (reply instanceof Throwable replyError && hasErrorCode(replyError, code)) {
+                    return true;
+                }
+            }
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[][] keyAndArguments(String key, Object[] arguments) {
+        byte[][] keyAndArguments = new byte[arguments.length + 1][];
+        keyAndArguments[0] = bytes(key);
+        for (int i = 0; i < arguments.length; i++) {
+            keyAndArguments[i + 1] = bytes((String) arguments[i]);
+        }
+        return keyAndArguments;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Object[] to match the varargs of StringRedisTemplate.execute; every element is a String
+    private Object[] arguments(T value, Duration ttl) {
+        Map<String, String> hash = new LinkedHashMap<>(mapper.toHash(value));
+        List<String> arguments = new ArrayList<>(1 + 2 * hash.size());
+        arguments.add(Long.toString(ttl == null || ttl.isNegative() ? 0 : ttl.toMillis()));
+        hash.forEach((field, fieldValue) -> {
+            arguments.add(field);
+            arguments.add(fieldValue);
+        });
+        return arguments.toArray();
+    }
+
+    private HashOperations<String, String, String> hashes() {
+        return stringRedisTemplate.opsForHash();
+    }
+
+    private static <T> void putIfNotNull(Map<String, T> map, String key, T value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+}
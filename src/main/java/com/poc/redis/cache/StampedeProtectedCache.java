@@ -0,0 +1,281 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.config.ApplicationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Miss coalescing and probabilistic early refresh for {@code @Cacheable(sync = true)} reads.
+ * <ul>
+ *   <li>Only one load per key runs per JVM; concurrent callers wait for its result.</li>
+ *   <li>Optionally a short Redis lock limits the load to one instance per cluster; the others
+ *       poll the cache until the value appears or the wait expires.</li>
+ *   <li>XFetch: a hit refreshes the entry in the background with a probability that rises as
+ *       expiry approaches, weighted by how long the last load took. The refresh re-runs the
+ *       caller's loader on a pool thread, without the caller's transaction, security context or
+ *       other thread-bound state, so it suits only loaders that need none of it (off by default).</li>
+ * </ul>
+ * Null results are returned but never stored, matching {@code disableCachingNullValues()}.
+ */
+@Slf4j
+public class StampedeProtectedCache implements Cache {
+
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final long LOCK_POLL_MILLIS = 50;
+
+    private final Cache delegate;
+    private final ApplicationProperties.Redis.Stampede properties;
+    private final CacheTtlPolicy ttlPolicy;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, LoadStats> loadStats = new ConcurrentHashMap<>();
+
+    public StampedeProtectedCache(Cache delegate, ApplicationProperties.Redis.Stampede properties,
+                                  CacheTtlPolicy ttlPolicy, StringRedisTemplate stringRedisTemplate,
+                                  Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.ttlPolicy = ttlPolicy;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            maybeRefreshEarly(key, cached.get(), valueLoader);
+            return (T) cached.get();
+        }
+        return (T) loadOnce(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        loadStats.remove(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        loadStats.remove(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        loadStats.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        loadStats.clear();
+        return delegate.invalidate();
+    }
+
+    private Object loadOnce(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            return await(existing, key, valueLoader);
+        }
+        try {
+            Object value = loadWithLock(key, valueLoader);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    private Object loadWithLock(Object key, Callable<?> valueLoader) {
+        if (!properties.isDistributedLock()) {
+            return loadAndStore(key, valueLoader);
+        }
+        String lockKey = "app-lock:" + getName() + "::" + key;
+        String token = UUID.randomUUID().toString();
+        Boolean acquired;
+        try {
+            acquired = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token, properties.getLockTtl());
+        } catch (Exception e) {
+            log.warn("Load lock unavailable for {}::{}, loading locally: {}", getName(), key, e.getMessage());
+            return loadAndStore(key, valueLoader);
+        }
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                return loadAndStore(key, valueLoader);
+            } finally {
+                releaseLock(lockKey, token);
+            }
+        }
+        ValueWrapper loadedElsewhere = awaitRemoteLoad(key);
+        return loadedElsewhere != null ? loadedElsewhere.get() : loadAndStore(key, valueLoader);
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long loadNanos = System.nanoTime() - start;
+        if (value != null) {
+            delegate.put(key, value);
+            recordLoad(key, loadNanos);
+        }
+        return value;
+    }
+
+    private ValueWrapper awaitRemoteLoad(Object key) {
+        long deadline = System.nanoTime() + properties.getLockWait().toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper value = delegate.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private void releaseLock(String lockKey, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LOCK, List.of(lockKey), token);
+        } catch (Exception e) {
+            // The lock expires on its own after lockTtl
+            log.warn("Failed to release load lock {}: {}", lockKey, e.getMessage());
+        }
+    }
+
+    private Object await(CompletableFuture<Object> load, Object key, Callable<?> valueLoader) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private void recordLoad(Object key, long loadNanos) {
+        if (!properties.isEarlyRefresh()) {
+            return;
+        }
+        // Jitter may have shortened the stored TTL; refresh early enough for the shortest one
+        Duration ttl = ttlPolicy.minTimeToLive(getName(), key);
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        if (loadStats.size() < properties.getMaxTrackedKeys() || loadStats.containsKey(key)) {
+            loadStats.put(key, new LoadStats(loadNanos, System.nanoTime() + ttl.toNanos()));
+        }
+    }
+
+    /**
+     * XFetch: refresh when now - delta * beta * ln(rand) >= expiry
+     */
+    private void maybeRefreshEarly(Object key, Object currentValue, Callable<?> valueLoader) {
+        if (!properties.isEarlyRefresh()) {
+            return;
+        }
+        LoadStats stats = loadStats.get(key);
+        if (stats == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - stats.expiresAtNanos >= 0) {
+            loadStats.remove(key, stats);
+            return;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double gap = -stats.loadNanos * properties.getBeta() * Math.log(random);
+        if (now + gap < stats.expiresAtNanos) {
+            return;
+        }
+
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, refresh) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh.complete(loadAndStore(key, valueLoader));
+                } catch (RuntimeException e) {
+                    log.warn("Early refresh failed for {}::{}: {}", getName(), key, e.getMessage());
+                    refresh.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, refresh);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Refresh queue is full; anyone who joined meanwhile gets the still-valid cached value
+            inFlight.remove(key, refresh);
+            refresh.complete(currentValue);
+        }
+    }
+
+    private record LoadStats(long loadNanos, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,243 @@
+package com.poc.redis.cluster;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.cache.BatchStrategy;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Multi-key operations for Redis Cluster, where one command may only touch keys of a single slot.
+ * <ul>
+ *   <li>MGET / SET: keys are grouped by slot and every group is dispatched at once on the
+ *       async cluster connection, so each node receives its share as one pipelined burst and
+ *       the nodes work in parallel.</li>
+ *   <li>SCAN / UNLINK: each master is scanned on its own cursor; UNLINK batches are split by slot.
+ *       Cache clear() goes through the same path via {@link #cleanStrategy(int)}.</li>
+ * </ul>
+ */
+@Slf4j
+public class ClusterKeyOperations {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final ExecutorService nodeExecutor;
+
+    public ClusterKeyOperations(LettuceConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        AtomicInteger threads = new AtomicInteger();
+        this.nodeExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "redis-cluster-node-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Values in key order, null for missing keys
+     */
+    public List<byte[]> mGet(byte[][] keys) {
+        List<List<Integer>> groups = new ArrayList<>(groupBySlot(keys).values());
+        try (RedisClusterConnection connection = connectionFactory.getClusterConnection()) {
+            RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+            List<RedisFuture<List<KeyValue<byte[], byte[]>>>> pending = new ArrayList<>(groups.size());
+            for (List<Integer> indices : groups) {
+                pending.add(commands.mget(indices.stream().map(i -> keys[i]).toArray(byte[][]::new)));
+            }
+            byte[][] values = new byte[keys.length][];
+            for (int group = 0; group < groups.size(); group++) {
+                List<KeyValue<byte[], byte[]>> replies = await(pending.get(group));
+                List<Integer> indices = groups.get(group);
+                for (int i = 0; i < indices.size(); i++) {
+                    KeyValue<byte[], byte[]> reply = replies.get(i);
+                    values[indices.get(i)] = reply.hasValue() ? reply.getValue() : null;
+                }
+            }
+            return Arrays.asList(values);
+        }
+    }
+
+    /**
+     * SET with optional TTL for every entry; all commands are in flight together
+     */
+    public void setAll(List<Entry> entries) {
+        setAll(entries, false);
+    }
+
+    /**
+     * Same as {@link #setAll(List)}; with ifAbsent, existing keys keep their value (SET NX)
+     */
+    public void setAll(List<Entry> entries, boolean ifAbsent) {
+        try (RedisClusterConnection connection = connectionFactory.getClusterConnection()) {
+            RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+            List<RedisFuture<String>> pending = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                SetArgs args = new SetArgs();
+                if (ifAbsent) {
+                    args.nx();
+                }
+                if (entry.ttl() != null && !entry.ttl().isZero() && !entry.ttl().isNegative()) {
+                    args.px(entry.ttl().toMillis());
+                }
+                pending.add(commands.set(entry.key(), entry.value(), args));
+            }
+            pending.forEach(ClusterKeyOperations::await);
+        }
+    }
+
+    /**
+     * Walks every master with its own SCAN cursor, one node after another,
+     * so the consumer is never called concurrently
+     */
+    public void scan(String pattern, int count, Consumer<String> consumer) {
+        try (RedisClusterConnection connection = connectionFactory.getClusterConnection()) {
+            RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+            for (RedisClusterNode node : masters(connection)) {
+                scanNode(commands.getConnection(node.getId()), pattern, count,
+                        keys -> keys.forEach(key -> consumer.accept(new String(key, StandardCharsets.UTF_8))));
+            }
+        }
+    }
+
+    /**
+     * SCAN + UNLINK on all masters in parallel; returns the number of keys removed
+     */
+    public long unlinkByPattern(String pattern, int batchSize) {
+        try (RedisClusterConnection connection = connectionFactory.getClusterConnection()) {
+            RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+            List<Future<Long>> nodes = new ArrayList<>();
+            for (RedisClusterNode node : masters(connection)) {
+                RedisClusterAsyncCommands<byte[], byte[]> nodeCommands = commands.getConnection(node.getId());
+                nodes.add(nodeExecutor.submit(() -> unlinkOnNode(nodeCommands, pattern, batchSize)));
+            }
+            long removed = 0;
+            for (Future<Long> node : nodes) {
+                removed += awaitNode(node);
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Cache clear() strategy for RedisCacheWriter; a single cluster connection cannot SCAN
+     * every node, so the cache pattern is unlinked master by master instead
+     */
+    public BatchStrategy cleanStrategy(int batchSize) {
+        return (connection, name, pattern) -> unlinkByPattern(new String(pattern, StandardCharsets.UTF_8), batchSize);
+    }
+
+    public void shutdown() {
+        nodeExecutor.shutdownNow();
+    }
+
+    private long unlinkOnNode(RedisClusterAsyncCommands<byte[], byte[]> nodeCommands, String pattern, int batchSize) {
+        long[] removed = {0};
+        scanNode(nodeCommands, pattern, batchSize, keys -> {
+            byte[][] batch = keys.toArray(byte[][]::new);
+            List<RedisFuture<Long>> pending = new ArrayList<>();
+            for (List<Integer> indices : groupBySlot(batch).values()) {
+                pending.add(nodeCommands.unlink(indices.stream().map(i -> batch[i]).toArray(byte[][]::new)));
+            }
+            for (RedisFuture<Long> unlinked : pending) {
+                Long count = await(unlinked);
+                removed[0] += count != null ? count : 0;
+            }
+        });
+        return removed[0];
+    }
+
+    private static void scanNode(RedisClusterAsyncCommands<byte[], byte[]> nodeCommands, String pattern, int count,
+                                 Consumer<List<byte[]>> page) {
+        ScanArgs args = ScanArgs.Builder.matches(pattern).limit(count);
+        ScanCursor cursor = ScanCursor.INITIAL;
+        do {
+            KeyScanCursor<byte[]> result = await(nodeCommands.scan(cursor, args));
+            if (!result.getKeys().isEmpty()) {
+                page.accept(result.getKeys());
+            }
+            cursor = result;
+        } while (!cursor.isFinished());
+    }
+
+    /**
+     * Slot -> positions of the keys hashing to it, in first-seen order
+     */
+    static Map<Integer, List<Integer>> groupBySlot(byte[][] keys) {
+        Map<Integer, List<Integer>> slots = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            slots.computeIfAbsent(SlotHash.getSlot(keys[i]), slot -> new ArrayList<>()).add(i);
+        }
+        return slots;
+    }
+
+    private static List<RedisClusterNode> masters(RedisClusterConnection connection) {
+        List<RedisClusterNode> masters = new ArrayList<>();
+        for (RedisClusterNode node : connection.clusterGetNodes()) {
+            if (node.isMaster() && !node.getFlags().contains(RedisClusterNode.Flag.FAIL)) {
+                masters.add(node);
+            }
+        }
+        return masters;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisAdvancedClusterAsyncCommands<byte[], byte[]> nativeCommands(RedisClusterConnection connection) {
+        Object nativeConnection = connection.getNativeConnection();
+        if (nativeConnection instanceof RedisAdvancedClusterAsyncCommands<?, ?> commands) {
+            return (RedisAdvancedClusterAsyncCommands<byte[], byte[]>) commands;
+        }
+        throw new IllegalStateException("Not a Lettuce cluster connection: " + nativeConnection.getClass().getName());
+    }
+
+    private static <T> T await(RedisFuture<T> future) {
+        try {
+            return future.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisSystemException("Interrupted waiting for cluster command", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RedisSystemException("Cluster command failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static long awaitNode(Future<Long> node) {
+        try {
+            return node.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisSystemException("Interrupted waiting for cluster node", e);
+        } catch (ExecutionException e) {
+            throw new RedisSystemException("Cluster node operation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public record Entry(byte[] key, byte[] value, Duration ttl) {
+    }
+}
@@ -6,13 +6,36 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @ConfigurationProperties(prefix = "spring.data")
 @Data
 public class ApplicationProperties {
     private Redis redis;
+    private Bulk bulk = new Bulk();
+    private Paging paging = new Paging();
+
+    @Data
+    public static class Bulk {
+        private int batchSize = 1000;
+
+        public void setBatchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("spring.data.bulk.batch-size must be positive");
+            }
+            this.batchSize = batchSize;
+        }
+    }
+
+    @Data
+    public static class Paging {
+        private int defaultSize = 100;
+        private int maxSize = 1000;
+        private int exportChunkSize = 1000;
+    }
     
     @Data
     public static class Redis {
@@ -21,6 +44,21 @@ public class ApplicationProperties {
         private String password;
         private Duration ttl;
         private Sentinel sentinel = new Sentinel();
+        private Cluster cluster = new Cluster();
+        private NearCache nearCache = new NearCache();
+        private Serializer serializer = new Serializer();
+        private Stampede stampede = new Stampede();
+        private WriteBehind writeBehind = new WriteBehind();
+        private WarmUp warmUp = new WarmUp();
+        private HotKeys hotKeys = new HotKeys();
+        private TtlPolicy ttlPolicy = new TtlPolicy();
+        private CommandTimeout commandTimeout = new CommandTimeout();
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private IdFilter idFilter = new IdFilter();
+        private ResponseCache responseCache = new ResponseCache();
+        private Etag etag = new Etag();
+        private Counters counters = new Counters();
+        private RateLimit rateLimit = new RateLimit();
         
         @Data
         public static class Sentinel {
@@ -29,7 +67,194 @@ public class ApplicationProperties {
             private String password;
             private List<String> nodes;
             private int database;
-            private boolean enableReadFromReplica;
+            private boolean enableReadFromReplica = true;
+            private ReadStrategy readFrom = ReadStrategy.REPLICA_PREFERRED;
+            private List<String> subnets = List.of();
+            private ReplicaLag replicaLag = new ReplicaLag();
+            private ReadYourWrites readYourWrites = new ReadYourWrites();
+
+            public enum ReadStrategy {
+                MASTER, MASTER_PREFERRED, REPLICA, REPLICA_PREFERRED, LOWEST_LATENCY, ANY, ANY_REPLICA, SUBNET
+            }
+
+            @Data
+            public static class ReplicaLag {
+                private boolean enabled = false;
+                private long maxOffsetLag = 1_048_576;
+                private Duration maxLag = Duration.ofSeconds(2);
+                private Duration pollInterval = Duration.ofSeconds(1);
+            }
+
+            @Data
+            public static class ReadYourWrites {
+                private boolean enabled = false;
+                private Mode mode = Mode.MASTER;
+                private Duration window = Duration.ofSeconds(2);
+                private int waitReplicas = 1;
+                private Duration waitTimeout = Duration.ofMillis(50);
+                private int waitConnections = 8;
+
+                public enum Mode { MASTER, WAIT, OFFSET }
+            }
+        }
+
+        @Data
+        public static class Cluster {
+            private boolean enabled = false;
+            private List<String> nodes = List.of();
+            private int maxRedirects = 3;
+            private Sentinel.ReadStrategy readFrom = Sentinel.ReadStrategy.REPLICA_PREFERRED;
+            private List<String> subnets = List.of();
+            private Duration topologyRefreshPeriod = Duration.ofSeconds(30);
+            private List<String> hashTagCaches = List.of();
+        }
+
+        @Data
+        public static class NearCache {
+            private boolean enabled = false;
+            private int maxSize = 10_000;
+            private Duration ttl = Duration.ofSeconds(30);
+            private String invalidationChannel = "app-cache:invalidations";
+        }
+
+        @Data
+        public static class Serializer {
+            private Mode mode = Mode.JSON;
+            private Compression compression = Compression.NONE;
+            private int compressionThreshold = 1024;
+            private List<String> hashCaches = List.of();
+
+            public enum Mode { JSON, BINARY }
+
+            public enum Compression { NONE, DEFLATE }
+        }
+
+        @Data
+        public static class Stampede {
+            private boolean distributedLock = false;
+            private Duration lockTtl = Duration.ofSeconds(5);
+            private Duration lockWait = Duration.ofSeconds(2);
+            private boolean earlyRefresh = false;
+            private double beta = 1.0;
+            private int maxTrackedKeys = 10_000;
+        }
+
+        @Data
+        public static class WriteBehind {
+            private boolean enabled = false;
+            private String streamKey = "app-stream:user-writes";
+            private String group = "user-writers";
+            private int maxQueueSize = 100_000;
+            private int batchSize = 500;
+            private Duration flushInterval = Duration.ofSeconds(1);
+            private Duration claimIdle = Duration.ofSeconds(30);
+        }
+
+        @Data
+        public static class WarmUp {
+            private boolean enabled = false;
+            private String snapshotPath = "data/hot-users.snapshot";
+            private int maxUsers = 50_000;
+            private int pageSize = 1000;
+            private int rateLimit = 20_000;
+            private Duration maxDuration = Duration.ofSeconds(60);
+
+            public void setPageSize(int pageSize) {
+                if (pageSize < 1) {
+                    throw new IllegalArgumentException("spring.data.redis.warm-up.page-size must be positive");
+                }
+                this.pageSize = pageSize;
+            }
+        }
+
+        @Data
+        public static class HotKeys {
+            private boolean enabled = false;
+            private int sampleRate = 64;
+            private int width = 4096;
+            private int depth = 4;
+            private int topK = 20;
+            private long minSamples = 8;
+            private Duration decayInterval = Duration.ofSeconds(10);
+            private boolean promote = false;
+            private Duration pinTtl = Duration.ofSeconds(1);
+        }
+
+        @Data
+        public static class TtlPolicy {
+            private double jitter = 0.1;
+            private Map<String, CacheTtl> caches = new HashMap<>();
+            private Overrides overrides = new Overrides();
+
+            @Data
+            public static class CacheTtl {
+                private Duration ttl;
+                private Double jitter;
+                private boolean slidingExpiry = false;
+                private List<KeyPattern> keyPatterns = List.of();
+            }
+
+            @Data
+            public static class KeyPattern {
+                private String pattern;
+                private Duration ttl;
+            }
+
+            @Data
+            public static class Overrides {
+                private boolean enabled = true;
+                private String key = "app-config:cache-ttl";
+                private Duration refreshInterval = Duration.ofSeconds(10);
+            }
+        }
+
+        @Data
+        public static class CommandTimeout {
+            private boolean adaptive = false;
+            private Duration min = Duration.ofMillis(250);
+            private Duration max = Duration.ofSeconds(5);
+            private Duration initial = Duration.ofMillis(500);
+        }
+
+        @Data
+        public static class CircuitBreaker {
+            private boolean enabled = true;
+            private int failureThreshold = 5;
+            private Duration probeInterval = Duration.ofSeconds(1);
+            private int probesToClose = 3;
+            private int maxPendingEvictions = 10_000;
+        }
+
+        @Data
+        public static class IdFilter {
+            private boolean enabled = false;
+            private long expectedInsertions = 1_000_000;
+            private double falsePositiveRate = 0.01;
+            private Duration rebuildInterval = Duration.ofHours(6);
+            private int pageSize = 10_000;
+            private Duration negativeTtl = Duration.ZERO;
+        }
+
+        @Data
+        public static class ResponseCache {
+            private boolean enabled = false;
+        }
+
+        @Data
+        public static class Etag {
+            private boolean enabled = false;
+            private Duration versionTtl = Duration.ofMinutes(10);
+        }
+
+        @Data
+        public static class Counters {
+            private int blockSize = 100;
+            private Duration idleTimeout = Duration.ofSeconds(30);
+        }
+
+        @Data
+        public static class RateLimit {
+            private boolean failOpen = true;
         }
     }
 }
@@ -1,27 +1,75 @@
 package com.poc.redis.config;
 
+import com.poc.redis.cache.CacheTtlPolicy;
+import com.poc.redis.cache.CircuitBreakerCache;
+import com.poc.redis.cache.DecoratingCacheManager;
+import com.poc.redis.cache.HashBackedCache;
+import com.poc.redis.cache.HotKeyCache;
+import com.poc.redis.cache.InstrumentedCache;
+import com.poc.redis.cache.LayeredCacheManager;
+import com.poc.redis.cache.NearCache;
+import com.poc.redis.cache.RedisHashStore;
+import com.poc.redis.cache.StampedeProtectedCache;
+import com.poc.redis.cluster.ClusterKeyOperations;
+import com.poc.redis.hotkey.HotKeyDetector;
+import com.poc.redis.model.User;
+import com.poc.redis.resilience.AdaptiveCommandTimeout;
+import com.poc.redis.resilience.RedisCacheErrorHandler;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import com.poc.redis.routing.LagAwareReadFrom;
+import com.poc.redis.routing.ReplicaAckWaiter;
+import com.poc.redis.routing.ReplicaLagMonitor;
+import com.poc.redis.serializer.CompactRedisSerializer;
+import com.poc.redis.serializer.UserHashMapper;
+import com.poc.redis.service.UserCacheSupport;
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.ReadFrom;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.metrics.MicrometerCommandLatencyRecorder;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.BatchStrategy;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisNode;
 import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Redis Configuration with Single Template
@@ -43,15 +91,16 @@ public class RedisConfig {
      */
     @Bean(name = "redisTemplate")
     @Primary
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                      RedisSerializer<Object> redisValueSerializer) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(connectionFactory);
         
         // Configure serializers
         redisTemplate.setKeySerializer(new StringRedisSerializer());
-        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.setValueSerializer(redisValueSerializer);
         redisTemplate.setHashKeySerializer(new StringRedisSerializer());
-        redisTemplate.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.setHashValueSerializer(redisValueSerializer);
         
         // Enable transactions (writes will go to master)
         redisTemplate.setEnableTransactionSupport(true);
@@ -62,41 +111,407 @@ public class RedisConfig {
         return redisTemplate;
     }
 
+    /**
+     * Same serializers as redisTemplate, without transaction support
+     * - Never binds a connection to a Spring transaction, so commands keep using the shared
+     *   multiplexed Lettuce connection and reads return values even inside @Transactional code
+     * - Used by RedisService; MULTI/EXEC only where a caller asks for it (RedisService.executeAtomically)
+     */
+    @Bean(name = "nonTransactionalRedisTemplate")
+    public RedisTemplate<String, Object> nonTransactionalRedisTemplate(RedisConnectionFactory connectionFactory,
+                                                                      RedisSerializer<Object> redisValueSerializer) {
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(redisValueSerializer);
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(redisValueSerializer);
+        redisTemplate.setEnableTransactionSupport(false);
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
+
+    /**
+     * Reactive template on the same Lettuce connection factory
+     * - Same serializers and read/write routing as the blocking template
+     * - Commands complete on Lettuce's event loop instead of parking a servlet thread
+     */
+    @Bean(name = "reactiveRedisTemplate")
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory connectionFactory,
+                                                                      RedisSerializer<Object> redisValueSerializer) {
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+                .<String, Object>newSerializationContext(new StringRedisSerializer())
+                .value(redisValueSerializer)
+                .hashValue(redisValueSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, serializationContext);
+    }
+
+    /**
+     * Value serializer selected by spring.data.redis.serializer.mode
+     * - JSON: GenericJackson2JsonRedisSerializer (class names embedded in every payload)
+     * - BINARY: compact encoding for users, optional deflate; still reads existing JSON/JDK entries
+     */
+    @Bean
+    public RedisSerializer<Object> redisValueSerializer(MeterRegistry meterRegistry) {
+        ApplicationProperties.Redis.Serializer serializer = applicationProperties.getRedis().getSerializer();
+        if (serializer.getMode() == ApplicationProperties.Redis.Serializer.Mode.BINARY) {
+            log.info("Using BINARY value serializer - compression: {}, threshold: {} bytes",
+                    serializer.getCompression(), serializer.getCompressionThreshold());
+            return new CompactRedisSerializer(new GenericJackson2JsonRedisSerializer(),
+                    serializer.getCompression() == ApplicationProperties.Redis.Serializer.Compression.DEFLATE,
+                    serializer.getCompressionThreshold(), meterRegistry);
+        }
+        return new GenericJackson2JsonRedisSerializer();
+    }
+
+    /**
+     * Plain string template for keys and payloads that should not go through Jackson
+     * - No transaction support: the cache helpers, locks and indexes run on the shared connection
+     */
+    @Bean(name = "stringRedisTemplate")
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+        return new StringRedisTemplate(connectionFactory);
+    }
+
+    /**
+     * Shared pub/sub listener container (near-cache invalidations)
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
     /**
      * Single Connection Factory with intelligent read/write routing
-     * - Uses REPLICA_PREFERRED strategy: reads from replicas when available, fallback to master
+     * - Reads follow spring.data.redis.sentinel.read-from (REPLICA_PREFERRED by default)
      * - Writes always go to master automatically
      */
     @Bean(name = "redisConnectionFactory")
     @Primary
-    public LettuceConnectionFactory redisConnectionFactory() {
-        if (applicationProperties.getRedis().getSentinel().isEnabled()) {
-            log.info("Creating SENTINEL Connection Factory with REPLICA_PREFERRED strategy");
-            return createSentinelConnectionFactory();
+    public LettuceConnectionFactory redisConnectionFactory(ClientResources lettuceClientResources,
+                                                           ReplicaLagMonitor replicaLagMonitor,
+                                                           AdaptiveCommandTimeout adaptiveCommandTimeout) {
+        if (applicationProperties.getRedis().getCluster().isEnabled()) {
+            log.info("Creating CLUSTER Connection Factory with {} strategy",
+                    applicationProperties.getRedis().getCluster().getReadFrom());
+            return createClusterConnectionFactory(lettuceClientResources, adaptiveCommandTimeout);
+        } else if (applicationProperties.getRedis().getSentinel().isEnabled()) {
+            log.info("Creating SENTINEL Connection Factory with {} strategy",
+                    applicationProperties.getRedis().getSentinel().getReadFrom());
+            return createSentinelConnectionFactory(lettuceClientResources, replicaLagMonitor, adaptiveCommandTimeout);
         } else {
             log.info("Creating STANDALONE Connection Factory");
-            return createStandaloneConnectionFactory();
+            return createStandaloneConnectionFactory(lettuceClientResources, adaptiveCommandTimeout);
         }
     }
 
     /**
-     * Cache Manager using the single connection factory
+     * WAIT for read-your-writes on dedicated master connections (not the shared one it would block);
+     * only created with read-your-writes in WAIT mode
      */
-    @Bean(name = "cacheManager")
-    @Primary
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    @Bean(destroyMethod = "shutdown")
+    public ReplicaAckWaiter replicaAckWaiter(ClientResources lettuceClientResources) {
+        ApplicationProperties.Redis.Sentinel sentinel = applicationProperties.getRedis().getSentinel();
+        ApplicationProperties.Redis.Sentinel.ReadYourWrites readYourWrites = sentinel.getReadYourWrites();
+        if (!sentinel.isEnabled() || !readYourWrites.isEnabled()
+                || readYourWrites.getMode() != ApplicationProperties.Redis.Sentinel.ReadYourWrites.Mode.WAIT) {
+            return new ReplicaAckWaiter(null, 0);
+        }
+        // Fixed timeout above wait-timeout: WAIT is expected to take up to that long
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                .readFrom(ReadFrom.UPSTREAM)
+                .commandTimeout(readYourWrites.getWaitTimeout().plus(applicationProperties.getRedis().getCommandTimeout().getMax()))
+                .clientResources(lettuceClientResources)
+                .build();
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(sentinelConfiguration(), clientConfig);
+        // Every connection taken from this factory is a dedicated one
+        factory.setShareNativeConnection(false);
+        factory.afterPropertiesSet();
+        factory.start();
+        log.info("Read-your-writes WAIT on up to {} dedicated connections", readYourWrites.getWaitConnections());
+        return new ReplicaAckWaiter(factory, readYourWrites.getWaitConnections());
+    }
+
+    /**
+     * Slot-grouped multi-key commands and per-node SCAN; used only in cluster mode
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ClusterKeyOperations clusterKeyOperations(LettuceConnectionFactory redisConnectionFactory) {
+        return new ClusterKeyOperations(redisConnectionFactory);
+    }
+
+    /**
+     * Replica offsets from the master's INFO replication, for lag-aware routing and
+     * offset-based read-your-writes; idle unless one of them is enabled
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ClientResources lettuceClientResources, MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(applicationProperties.getRedis(), lettuceClientResources, meterRegistry);
+    }
+
+    /**
+     * Per-cache and per-key TTLs with jitter; runtime overrides are polled from Redis
+     */
+    @Bean
+    public CacheTtlPolicy cacheTtlPolicy(StringRedisTemplate stringRedisTemplate) {
+        return new CacheTtlPolicy(applicationProperties.getRedis(), stringRedisTemplate);
+    }
+
+    /**
+     * Users as Redis hashes, for caches listed in serializer.hash-caches
+     */
+    @Bean
+    public RedisHashStore<User> userHashStore(StringRedisTemplate stringRedisTemplate) {
+        return new RedisHashStore<>(stringRedisTemplate, new UserHashMapper(),
+                !applicationProperties.getRedis().getCluster().isEnabled());
+    }
+
+    /**
+     * Sampled count-min sketch of cache and RedisService reads; never consulted when disabled
+     */
+    @Bean
+    public HotKeyDetector hotKeyDetector() {
+        return new HotKeyDetector(applicationProperties.getRedis().getHotKeys());
+    }
+
+    /**
+     * Command timeout for every Lettuce connection, adapted to observed latency when
+     * command-timeout.adaptive is on
+     */
+    @Bean
+    public AdaptiveCommandTimeout adaptiveCommandTimeout() {
+        return new AdaptiveCommandTimeout(applicationProperties.getRedis().getCommandTimeout());
+    }
+
+    /**
+     * Opens on repeated Redis outages; caches and RedisService then skip Redis until probes succeed
+     */
+    @Bean
+    public RedisCircuitBreaker redisCircuitBreaker(StringRedisTemplate stringRedisTemplate,
+                                                   AdaptiveCommandTimeout adaptiveCommandTimeout,
+                                                   MeterRegistry meterRegistry) {
+        return new RedisCircuitBreaker(applicationProperties.getRedis().getCircuitBreaker(), stringRedisTemplate,
+                adaptiveCommandTimeout, meterRegistry);
+    }
+
+    /**
+     * Cache errors that get past CircuitBreakerCache (e.g. from @CachePut on a cache it does not wrap)
+     * are skipped when Redis is down instead of failing the request
+     */
+    @Bean
+    public CachingConfigurer cachingConfigurer(RedisCircuitBreaker redisCircuitBreaker) {
+        return new CachingConfigurer() {
+            @Override
+            public CacheErrorHandler errorHandler() {
+                return new RedisCacheErrorHandler(redisCircuitBreaker);
+            }
+        };
+    }
+
+    /**
+     * Lettuce client resources with per-command latency timers
+     * - lettuce.command.completion / lettuce.command.firstresponse, tagged by command
+     * - Percentile histograms so p50/p99/p999 can be aggregated across instances
+     * - Completion latencies also feed the adaptive command timeout
+     */
+    @Bean(name = "lettuceClientResources", destroyMethod = "shutdown")
+    public ClientResources lettuceClientResources(MeterRegistry meterRegistry,
+                                                  AdaptiveCommandTimeout adaptiveCommandTimeout) {
+        MicrometerOptions options = MicrometerOptions.builder()
+                .histogram(true)
+                .build();
+        return ClientResources.builder()
+                .commandLatencyRecorder(adaptiveCommandTimeout.recorder(
+                        new MicrometerCommandLatencyRecorder(meterRegistry, options)))
+                .build();
+    }
+
+    /**
+     * Cache entry layout (prefix, default TTL, serialization) shared by the cache manager and
+     * the code that reads or writes cache entries directly in bulk; per-cache TTLs come from CacheTtlPolicy
+     */
+    @Bean
+    public RedisCacheConfiguration redisCacheConfiguration(RedisSerializer<Object> redisValueSerializer) {
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .disableCachingNullValues()
-                .computePrefixWith(cacheName -> "app-cache:" + cacheName + "::")
+                .computePrefixWith(this::cacheKeyPrefix)
                 .entryTtl(applicationProperties.getRedis().getTtl());
+        if (redisValueSerializer instanceof CompactRedisSerializer) {
+            cacheConfig = cacheConfig.serializeValuesWith(
+                    RedisSerializationContext.SerializationPair.fromSerializer(redisValueSerializer));
+        }
+        return cacheConfig;
+    }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(cacheConfig)
-                .build();
+    /**
+     * app-cache:name:: by default; app-cache:{name}:: for caches listed in cluster.hash-tag-caches,
+     * which puts all of that cache's entries in one slot
+     */
+    private String cacheKeyPrefix(String cacheName) {
+        if (applicationProperties.getRedis().getCluster().getHashTagCaches().contains(cacheName)) {
+            return "app-cache:{" + cacheName + "}::";
+        }
+        return "app-cache:" + cacheName + "::";
+    }
+
+    /**
+     * Cache Manager using the single connection factory
+     * - Each cache gets its TTL function (and optional time-to-idle) from CacheTtlPolicy as it is created
+     * - The response-body cache stores raw bytes and is a no-op unless response-cache is enabled
+     * - When near-cache is enabled, an in-process L1 sits in front of Redis and is
+     *   invalidated across instances through the near-cache pub/sub channel
+     */
+    @Bean(name = "cacheManager")
+    @Primary
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisCacheConfiguration cacheConfig,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     HotKeyDetector hotKeyDetector,
+                                     CacheTtlPolicy cacheTtlPolicy,
+                                     RedisHashStore<User> userHashStore,
+                                     RedisCircuitBreaker redisCircuitBreaker,
+                                     ClusterKeyOperations clusterKeyOperations,
+                                     MeterRegistry meterRegistry,
+                                     @Qualifier("cacheRefreshExecutor") ThreadPoolTaskExecutor refreshExecutor) {
+        // Cache clear() walks the namespace with SCAN instead of KEYS; in cluster mode on every master
+        BatchStrategy clearStrategy = applicationProperties.getRedis().getCluster().isEnabled()
+                ? clusterKeyOperations.cleanStrategy(1000)
+                : BatchStrategies.scan(1000);
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, clearStrategy);
+        RedisCacheManager redisCacheManager = new RedisCacheManager(cacheWriter, cacheConfig) {
+            @Override
+            protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+                RedisCacheConfiguration configuration = cacheConfiguration != null ? cacheConfiguration : cacheConfig;
+                if (UserCacheSupport.RESPONSE_CACHE_NAME.equals(name)) {
+                    configuration = configuration.serializeValuesWith(
+                            RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.byteArray()));
+                }
+                return super.createRedisCache(name, cacheTtlPolicy.apply(name, configuration));
+            }
+        };
+
+        redisCacheManager.afterPropertiesSet();
+        CacheManager cacheManager = redisCacheManager;
+
+        // Write paths always evict response bodies; without the feature that costs nothing
+        if (!applicationProperties.getRedis().getResponseCache().isEnabled()) {
+            cacheManager = new DecoratingCacheManager(cacheManager, cache ->
+                    UserCacheSupport.RESPONSE_CACHE_NAME.equals(cache.getName()) ? new NoOpCache(cache.getName()) : cache);
+        }
+
+        // Entity caches stored as hashes; only users has a hash mapping
+        List<String> hashCaches = applicationProperties.getRedis().getSerializer().getHashCaches();
+        if (!hashCaches.isEmpty()) {
+            hashCaches.stream()
+                    .filter(name -> !UserCacheSupport.CACHE_NAME.equals(name))
+                    .forEach(name -> log.warn("No hash mapping for cache '{}', its values stay serialized", name));
+            cacheManager = new DecoratingCacheManager(cacheManager, cache -> hashCaches.contains(cache.getName())
+                    && UserCacheSupport.CACHE_NAME.equals(cache.getName())
+                    ? new HashBackedCache<>(cache, cacheConfig.getKeyPrefixFor(cache.getName()), User.class,
+                            userHashStore, cacheTtlPolicy)
+                    : cache);
+            log.info("Hash-backed caches configured: {}", hashCaches);
+        }
+
+        // Redis outages become cache misses; writes made while Redis is bypassed are evicted on recovery
+        if (redisCircuitBreaker.isEnabled()) {
+            cacheManager = new DecoratingCacheManager(cacheManager,
+                    cache -> new CircuitBreakerCache(cache, redisCircuitBreaker));
+        }
+
+        ApplicationProperties.Redis.NearCache nearCache = applicationProperties.getRedis().getNearCache();
+        if (nearCache.isEnabled()) {
+            LayeredCacheManager layeredCacheManager = new LayeredCacheManager(
+                    cacheManager, nearCache, stringRedisTemplate, meterRegistry);
+            listenerContainer.addMessageListener(layeredCacheManager, new ChannelTopic(nearCache.getInvalidationChannel()));
+            log.info("Layered cache manager configured - L1 maxSize: {}, ttl: {}, channel: {}",
+                    nearCache.getMaxSize(), nearCache.getTtl(), nearCache.getInvalidationChannel());
+            cacheManager = layeredCacheManager;
+        }
+
+        // Single-flight loading and early refresh for @Cacheable(sync = true)
+        ApplicationProperties.Redis.Stampede stampede = applicationProperties.getRedis().getStampede();
+        cacheManager = new DecoratingCacheManager(cacheManager, cache -> new StampedeProtectedCache(
+                cache, stampede, cacheTtlPolicy, stringRedisTemplate, refreshExecutor));
+        log.info("Stampede protection configured - distributedLock: {}, earlyRefresh: {}, beta: {}",
+                stampede.isDistributedLock(), stampede.isEarlyRefresh(), stampede.getBeta());
+
+        // Hot-key detection, optionally serving hot keys from a short-lived local copy
+        ApplicationProperties.Redis.HotKeys hotKeys = applicationProperties.getRedis().getHotKeys();
+        if (hotKeyDetector.isEnabled()) {
+            List<HotKeyCache> hotKeyCaches = new CopyOnWriteArrayList<>();
+            cacheManager = new DecoratingCacheManager(cacheManager, cache -> {
+                NearCache pinned = hotKeys.isPromote() ? new NearCache(hotKeys.getTopK(), hotKeys.getPinTtl()) : null;
+                HotKeyCache hotKeyCache = new HotKeyCache(cache, hotKeyDetector, pinned);
+                FunctionCounter.builder("cache.hotkeys.pinned.hits", hotKeyCache, HotKeyCache::getPinnedHits)
+                        .description("Reads served from the in-process copy of a hot key")
+                        .tag("cache", cache.getName())
+                        .register(meterRegistry);
+                hotKeyCaches.add(hotKeyCache);
+                return hotKeyCache;
+            });
+            // Pins are local copies too: a pattern UNLINK's clear-all broadcast drops them on every instance
+            if (hotKeys.isPromote()) {
+                listenerContainer.addMessageListener((message, pattern) -> {
+                    if (LayeredCacheManager.isClearAll(message)) {
+                        hotKeyCaches.forEach(HotKeyCache::unpinAll);
+                    }
+                }, new ChannelTopic(nearCache.getInvalidationChannel()));
+            }
+            log.info("Hot-key detection configured - promote: {}, pinTtl: {}", hotKeys.isPromote(), hotKeys.getPinTtl());
+        }
+
+        // Outermost: hit/miss/load-time metrics per cache name
+        return new DecoratingCacheManager(cacheManager, cache -> new InstrumentedCache(cache, meterRegistry));
+    }
+
+    // Background refresh pool, started and shut down by the context. Not a default candidate, so Boot
+    // still creates its applicationTaskExecutor (MVC async, streaming bodies) and nothing else injects this one
+    @Bean(name = "cacheRefreshExecutor", defaultCandidate = false)
+    public ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setDaemon(true);
+        executor.setThreadNamePrefix("cache-refresh-");
+        return executor;
     }
 
     // Helper method to create Sentinel connection factory
-    private LettuceConnectionFactory createSentinelConnectionFactory() {
+    private LettuceConnectionFactory createSentinelConnectionFactory(ClientResources clientResources,
+                                                                     ReplicaLagMonitor replicaLagMonitor,
+                                                                     AdaptiveCommandTimeout commandTimeout) {
+        RedisSentinelConfiguration sentinelConfig = sentinelConfiguration();
+
+        // Configure Lettuce client with the configured read strategy; writes always go to master
+        ReadFrom readFrom = readFrom(applicationProperties.getRedis().getSentinel(), replicaLagMonitor);
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                .readFrom(readFrom)
+                .clientOptions(ClientOptions.builder()
+                        .autoReconnect(true)
+                        .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                        .timeoutOptions(timeoutOptions(commandTimeout))
+                        .build())
+                .commandTimeout(applicationProperties.getRedis().getCommandTimeout().getMax())
+                .clientResources(clientResources)
+                .build();
+        // This configuration enables intelligent read/write splitting with automatic failover capabilities
+        
+        log.info("Sentinel Configuration - Master: {}, ReadFrom: {}",
+                applicationProperties.getRedis().getSentinel().getMaster(), readFrom);
+        
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(sentinelConfig, clientConfig);
+        // One multiplexed connection for all non-blocking, non-transactional commands
+        factory.setShareNativeConnection(true);
+        return factory;
+    }
+
+    private RedisSentinelConfiguration sentinelConfiguration() {
         // Create Sentinel configuration
         RedisSentinelConfiguration sentinelConfig = new RedisSentinelConfiguration();
         sentinelConfig.setMaster(applicationProperties.getRedis().getSentinel().getMaster()); //myMaster
@@ -122,26 +537,79 @@ public class RedisConfig {
         
         // Set database
         sentinelConfig.setDatabase(applicationProperties.getRedis().getSentinel().getDatabase());
-        
-        // Configure Lettuce client with REPLICA_PREFERRED strategy
+        return sentinelConfig;
+    }
+
+    // Maps the configured strategy to Lettuce; lag exclusion and read-your-writes wrap it
+    private ReadFrom readFrom(ApplicationProperties.Redis.Sentinel sentinel, ReplicaLagMonitor replicaLagMonitor) {
+        ApplicationProperties.Redis.Sentinel.ReadStrategy strategy =
+                sentinel.isEnableReadFromReplica() ? sentinel.getReadFrom() : ApplicationProperties.Redis.Sentinel.ReadStrategy.MASTER;
+        ReadFrom readFrom = toReadFrom(strategy, sentinel.getSubnets());
+        if (strategy == ApplicationProperties.Redis.Sentinel.ReadStrategy.MASTER) {
+            return readFrom;
+        }
+        if (sentinel.getReplicaLag().isEnabled() || sentinel.getReadYourWrites().isEnabled()) {
+            return new LagAwareReadFrom(readFrom, replicaLagMonitor);
+        }
+        return readFrom;
+    }
+
+    private static ReadFrom toReadFrom(ApplicationProperties.Redis.Sentinel.ReadStrategy strategy, List<String> subnets) {
+        return switch (strategy) {
+            case MASTER -> ReadFrom.UPSTREAM;
+            case MASTER_PREFERRED -> ReadFrom.UPSTREAM_PREFERRED;
+            case REPLICA -> ReadFrom.REPLICA;
+            case REPLICA_PREFERRED -> ReadFrom.REPLICA_PREFERRED;
+            case LOWEST_LATENCY -> ReadFrom.LOWEST_LATENCY;
+            case ANY -> ReadFrom.ANY;
+            case ANY_REPLICA -> ReadFrom.ANY_REPLICA;
+            case SUBNET -> {
+                if (subnets.isEmpty()) {
+                    throw new IllegalStateException("subnets must be configured for read-from SUBNET");
+                }
+                yield ReadFrom.subnet(subnets.toArray(String[]::new));
+            }
+        };
+    }
+
+    // Helper method to create Cluster connection factory
+    private LettuceConnectionFactory createClusterConnectionFactory(ClientResources clientResources,
+                                                                    AdaptiveCommandTimeout commandTimeout) {
+        ApplicationProperties.Redis.Cluster cluster = applicationProperties.getRedis().getCluster();
+        RedisClusterConfiguration clusterConfig = new RedisClusterConfiguration(cluster.getNodes());
+        clusterConfig.setMaxRedirects(cluster.getMaxRedirects());
+        if (applicationProperties.getRedis().getPassword() != null &&
+            !applicationProperties.getRedis().getPassword().isEmpty()) {
+            clusterConfig.setPassword(applicationProperties.getRedis().getPassword());
+        }
+
+        // Follow slot migrations and failovers: periodic refresh plus MOVED/ASK/reconnect triggers
+        ClusterTopologyRefreshOptions topologyRefresh = ClusterTopologyRefreshOptions.builder()
+                .enablePeriodicRefresh(cluster.getTopologyRefreshPeriod())
+                .enableAllAdaptiveRefreshTriggers()
+                .build();
         LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
-                .readFrom(ReadFrom.REPLICA_PREFERRED) // Key setting: reads prefer replicas, writes go to master
-                .clientOptions(ClientOptions.builder()
+                .readFrom(toReadFrom(cluster.getReadFrom(), cluster.getSubnets()))
+                .clientOptions(ClusterClientOptions.builder()
+                        .topologyRefreshOptions(topologyRefresh)
                         .autoReconnect(true)
                         .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                        .timeoutOptions(timeoutOptions(commandTimeout))
                         .build())
-                .commandTimeout(Duration.ofSeconds(5))
+                .commandTimeout(applicationProperties.getRedis().getCommandTimeout().getMax())
+                .clientResources(clientResources)
                 .build();
-        // This configuration enables intelligent read/write splitting with automatic failover capabilities
-        
-        log.info("Sentinel Configuration - Master: {}, ReadFrom: REPLICA_PREFERRED", 
-                applicationProperties.getRedis().getSentinel().getMaster());
-        
-        return new LettuceConnectionFactory(sentinelConfig, clientConfig);
+
+        log.info("Cluster Configuration - Nodes: {}, ReadFrom: {}, hash-tagged caches: {}",
+                cluster.getNodes(), cluster.getReadFrom(), cluster.getHashTagCaches());
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(clusterConfig, clientConfig);
+        factory.setShareNativeConnection(true);
+        return factory;
     }
 
     // Helper method to create Standalone connection factory
-    private LettuceConnectionFactory createStandaloneConnectionFactory() {
+    private LettuceConnectionFactory createStandaloneConnectionFactory(ClientResources clientResources,
+                                                                       AdaptiveCommandTimeout commandTimeout) {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
         config.setHostName(applicationProperties.getRedis().getHost());
         config.setPort(applicationProperties.getRedis().getPort());
@@ -151,8 +619,27 @@ public class RedisConfig {
             config.setPassword(applicationProperties.getRedis().getPassword());
         }
         
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                .clientOptions(ClientOptions.builder()
+                        .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                        .timeoutOptions(timeoutOptions(commandTimeout))
+                        .build())
+                .commandTimeout(applicationProperties.getRedis().getCommandTimeout().getMax())
+                .clientResources(clientResources)
+                .build();
+
         log.info("Standalone Redis Configuration - HOST: {}, PORT: {}", 
                 config.getHostName(), config.getPort());
-        return new LettuceConnectionFactory(config);
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(config, clientConfig);
+        factory.setShareNativeConnection(true);
+        return factory;
+    }
+
+    // Per-command timeouts from the adaptive source; commandTimeout(max) stays the upper bound for blocking calls
+    private static TimeoutOptions timeoutOptions(AdaptiveCommandTimeout commandTimeout) {
+        return TimeoutOptions.builder()
+                .timeoutCommands(true)
+                .timeoutSource(commandTimeout)
+                .build();
     }
-}
\ No newline at end of file
+}
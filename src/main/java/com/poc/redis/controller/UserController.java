@@ -1,40 +1,160 @@
 package com.poc.redis.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.counter.LeasedCounters;
+import com.poc.redis.counter.RateLimitResult;
+import com.poc.redis.counter.SlidingWindowRateLimiter;
 import com.poc.redis.model.User;
+import com.poc.redis.model.UserPage;
+import com.poc.redis.serializer.UserHashMapper;
+import com.poc.redis.service.ReactiveRedisService;
 import com.poc.redis.service.RedisService;
 import com.poc.redis.service.UserService;
+import com.poc.redis.service.UserVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.boot.actuate.health.Health;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
+    private static final int MAX_BATCH_IDS = 1000;
+    private static final int MAX_SCAN_COUNT = 10_000;
+    private static final Set<String> PATCHABLE_FIELDS = Set.of(UserHashMapper.NAME, UserHashMapper.EMAIL,
+            UserHashMapper.DESIGNATION);
+
     @Autowired
     private UserService userService;
     @Autowired
     private RedisService redisService;
     @Autowired
+    @Qualifier("nonTransactionalRedisTemplate")
     private RedisTemplate<String, Object> redisTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ReactiveRedisService reactiveRedisService;
+    @Autowired
+    private ApplicationProperties applicationProperties;
+    @Autowired
+    private UserVersions userVersions;
+    @Autowired
+    private LeasedCounters leasedCounters;
+    @Autowired
+    private SlidingWindowRateLimiter rateLimiter;
 
+    /**
+     * With the response cache enabled the body is written from cached JSON bytes; with ETags
+     * enabled a matching If-None-Match is answered 304 after a single version read
+     */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(WebRequest request) {
+        // The version is read before the body, so an ETag never labels a body older than itself
+        String etag = userVersions.allUsersEtag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        if (responseCacheEnabled()) {
+            return json(etag, userService.getAllUsersJson());
+        }
         List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+        return ok(etag).body(users);
+    }
+
+    /**
+     * Keyset pagination: pass the previous page's nextAfter as after; deep pages cost the same as the first
+     */
+    @GetMapping("/page")
+    public ResponseEntity<UserPage> getUsersPage(@RequestParam(defaultValue = "0") long after,
+                                                 @RequestParam(required = false) Integer size) {
+        ApplicationProperties.Paging paging = applicationProperties.getPaging();
+        int pageSize = size != null ? size : paging.getDefaultSize();
+        if (pageSize < 1 || pageSize > paging.getMaxSize()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.getUsersPage(after, pageSize));
+    }
+
+    /**
+     * All users as one JSON array, written chunk by chunk as rows are read, so memory use does not
+     * grow with the table
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        int chunkSize = Math.max(applicationProperties.getPaging().getExportChunkSize(), 1);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                userService.exportUsers(chunkSize, chunk -> {
+                    try {
+                        for (User user : chunk) {
+                            generator.writeObject(user);
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<List<User>> getUsersByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(@PathVariable Long id, WebRequest request) {
+        String etag = userVersions.userEtag(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        if (responseCacheEnabled()) {
+            byte[] body = userService.getUserJson(id);
+            return body != null ? json(etag, body) : ResponseEntity.notFound().build();
+        }
         return userService.getUserById(id)
-                .map(ResponseEntity::ok)
+                .map(user -> ok(etag).body(user))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * GET /users/{id}?fields=email,name - only the requested fields
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getUserFields(@PathVariable Long id, @RequestParam List<String> fields) {
+        if (fields.isEmpty() || !UserHashMapper.FIELDS.containsAll(fields)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, Object> projection = userService.getUserFields(id, fields);
+        return projection != null ? ResponseEntity.ok(projection) : ResponseEntity.notFound().build();
+    }
+
     @PostMapping("/bulk")
     public ResponseEntity<List<User>> createUserInBulk(@RequestBody List<User> users) {
         List<User> createdUsers = userService.createUsersInBulk(users);
@@ -52,11 +172,34 @@ public class UserController {
         return userService.updateUser(id, user);
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<User> patchUser(@PathVariable Long id, @RequestBody Map<String, String> fields) {
+        if (fields.isEmpty() || !PATCHABLE_FIELDS.containsAll(fields.keySet())) {
+            return ResponseEntity.badRequest().build();
+        }
+        User patched = userService.patchUser(id, fields);
+        return patched != null ? ResponseEntity.ok(patched) : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
+
+    private boolean responseCacheEnabled() {
+        return applicationProperties.getRedis().getResponseCache().isEnabled();
+    }
+
+    private static ResponseEntity<byte[]> json(String etag, byte[] body) {
+        return ok(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static ResponseEntity.BodyBuilder ok(String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        return etag != null ? builder.eTag(etag) : builder;
+    }
+
     @GetMapping(value = "/redis", produces = {MediaType.APPLICATION_JSON_VALUE})
     public Health redisCheck() throws Exception {
         return redisService.checkRedisHealth();
@@ -66,12 +209,29 @@ public class UserController {
         return redisTemplate.opsForValue().get(key);
     }
     @DeleteMapping("/deleteCache")
-    public void deleteAllCache() {
-        redisTemplate.getConnectionFactory().getConnection().flushAll();
+    public ResponseEntity<String> deleteAllCache(@RequestParam(defaultValue = "app-cache:*") String namespace,
+                                                 @RequestParam(defaultValue = "500") int batchSize) {
+        long removed = redisService.unlinkByPattern(namespace, Math.min(Math.max(batchSize, 1), MAX_SCAN_COUNT));
+        return ResponseEntity.ok("Deleted " + removed + " keys matching: " + namespace);
     }
-    @GetMapping(value = "/getKeys")
-    public Object getAllKeys() {
-        return redisTemplate.keys("*");
+    @GetMapping(value = "/getKeys", produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> getAllKeys(@RequestParam(defaultValue = "*") String pattern,
+                                                            @RequestParam(defaultValue = "500") int count) {
+        int pageSize = Math.min(Math.max(count, 1), MAX_SCAN_COUNT);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                redisService.scanKeys(pattern, pageSize, key -> {
+                    try {
+                        generator.writeString(key);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     // Additional Redis operations using the simplified service
@@ -80,6 +240,9 @@ public class UserController {
         try {
             redisService.setValue(key, value);
             return ResponseEntity.ok("Value set successfully for key: " + key);
+        } catch (RedisConnectionFailureException e) {
+            // Redis down or circuit open: tell the client to retry rather than report a server bug
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Redis unavailable: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error: " + e.getMessage());
         }
@@ -90,6 +253,8 @@ public class UserController {
         try {
             Object value = redisService.getValue(key);
             return value != null ? ResponseEntity.ok(value) : ResponseEntity.notFound().build();
+        } catch (RedisConnectionFailureException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Redis unavailable: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error: " + e.getMessage());
         }
@@ -100,6 +265,8 @@ public class UserController {
         try {
             Boolean deleted = redisService.deleteKey(key);
             return deleted ? ResponseEntity.ok("Key deleted: " + key) : ResponseEntity.notFound().build();
+        } catch (RedisConnectionFailureException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Redis unavailable: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error: " + e.getMessage());
         }
@@ -114,4 +281,80 @@ public class UserController {
             return ResponseEntity.internalServerError().body("Error: " + e.getMessage());
         }
     }
+
+    /**
+     * Approximate shared counter: most calls are answered from this instance's leased block
+     */
+    @PostMapping("/redis/counter/{key}")
+    public ResponseEntity<Object> incrementLeased(@PathVariable String key) {
+        try {
+            return ResponseEntity.ok(leasedCounters.increment(key));
+        } catch (RedisConnectionFailureException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Redis unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 200 while key has made fewer than limit calls within the window, otherwise 429 with Retry-After
+     */
+    @PostMapping("/redis/ratelimit/{key}")
+    public ResponseEntity<RateLimitResult> acquireRateLimit(@PathVariable String key,
+                                                            @RequestParam int limit,
+                                                            @RequestParam(defaultValue = "1000") long windowMs) {
+        if (limit < 1 || windowMs < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        RateLimitResult result = rateLimiter.tryAcquire(key, limit, Duration.ofMillis(windowMs));
+        if (result.allowed()) {
+            return ResponseEntity.ok(result);
+        }
+        long retryAfterSeconds = Math.max(1, (result.retryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(result);
+    }
+
+    // Non-blocking variants: the servlet thread is released while Redis answers
+    @PostMapping("/redis/reactive/set/{key}")
+    public Mono<ResponseEntity<String>> setRedisValueReactive(@PathVariable String key,
+                                                              @RequestBody Object value,
+                                                              @RequestParam(required = false) Long ttlSeconds) {
+        Mono<Boolean> result = ttlSeconds != null
+                ? reactiveRedisService.setValueWithTTL(key, value, ttlSeconds)
+                : reactiveRedisService.setValue(key, value);
+        return result.map(ok -> ResponseEntity.ok("Value set successfully for key: " + key))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().body("Error: " + e.getMessage())));
+    }
+
+    @GetMapping("/redis/reactive/get/{key}")
+    public Mono<ResponseEntity<Object>> getRedisValueReactive(@PathVariable String key) {
+        return reactiveRedisService.getValue(key)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().<Object>body("Error: " + e.getMessage())));
+    }
+
+    @DeleteMapping("/redis/reactive/delete/{key}")
+    public Mono<ResponseEntity<String>> deleteRedisKeyReactive(@PathVariable String key) {
+        return reactiveRedisService.deleteKey(key)
+                .map(deleted -> deleted
+                        ? ResponseEntity.ok("Key deleted: " + key)
+                        : ResponseEntity.notFound().<String>build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().body("Error: " + e.getMessage())));
+    }
+
+    @PostMapping("/redis/reactive/increment/{key}")
+    public Mono<ResponseEntity<Long>> incrementReactive(@PathVariable String key) {
+        return reactiveRedisService.increment(key)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().<Long>build()));
+    }
+
+    @GetMapping("/redis/reactive/ttl/{key}")
+    public Mono<ResponseEntity<Long>> getTtlReactive(@PathVariable String key) {
+        return reactiveRedisService.getTtl(key)
+                .map(ttl -> ResponseEntity.ok(ttl.getSeconds()))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().<Long>build()));
+    }
 }
@@ -0,0 +1,53 @@
+package com.poc.redis.counter;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A block of increments of one counter, reserved in Redis with a single INCRBY and handed out
+ * locally. The leaser gets the block size and returns the counter's value after adding it.
+ * Once released (idle or shutdown) the lease is closed and a new one must be created.
+ */
+public final class CounterLease {
+
+    public static final long CLOSED = Long.MIN_VALUE;
+
+    private long next = 1;
+    private long end;
+    private long lastUsedNanos;
+    private boolean closed;
+
+    /**
+     * The next value of this instance's block, leasing a new block when it is used up;
+     * CLOSED if the lease was released. A failing leaser leaves the lease unchanged.
+     */
+    public synchronized long increment(LongUnaryOperator leaser, int blockSize, long nowNanos) {
+        if (closed) {
+            return CLOSED;
+        }
+        if (next > end) {
+            long leasedEnd = leaser.applyAsLong(blockSize);
+            next = leasedEnd - blockSize + 1;
+            end = leasedEnd;
+        }
+        lastUsedNanos = nowNanos;
+        return next++;
+    }
+
+    /**
+     * Closes the lease and returns how many leased increments were never handed out
+     */
+    public synchronized long release() {
+        closed = true;
+        long unused = end - next + 1;
+        next = end + 1;
+        return unused;
+    }
+
+    public synchronized long remaining() {
+        return end - next + 1;
+    }
+
+    public synchronized boolean isIdleSince(long cutoffNanos) {
+        return lastUsedNanos - cutoffNanos < 0;
+    }
+}
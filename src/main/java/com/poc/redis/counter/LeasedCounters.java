@@ -0,0 +1,158 @@
+package com.poc.redis.counter;
+
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.service.RedisBatch;
+import com.poc.redis.service.RedisService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request and quota counters without a Redis round-trip per increment.
+ * <ul>
+ *   <li>Each instance leases blockSize increments with one INCRBY and hands them out locally, so
+ *       the Redis value runs ahead of the true count by the unused part of every open lease.</li>
+ *   <li>A returned value is exact for this instance's increments but lags other instances' leases:
+ *       it is within instances x blockSize of the true count. Values are not unique IDs.</li>
+ *   <li>Leases idle for idleTimeout, and all leases at shutdown, give their unused increments
+ *       back (DECRBY, pipelined), so the Redis total converges to the exact count.</li>
+ * </ul>
+ * Use {@link RedisService#increment} where every caller must see the exact value.
+ */
+@Component
+@Slf4j
+public class LeasedCounters {
+
+    private final Map<String, CounterLease> leases = new ConcurrentHashMap<>();
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter incrementsCounter;
+    private Counter leasesCounter;
+    private Counter returnsCounter;
+    private Counter lostCounter;
+    private ScheduledExecutorService returner;
+
+    @PostConstruct
+    void registerMetrics() {
+        incrementsCounter = meterRegistry.counter("redis.counter.increments");
+        leasesCounter = meterRegistry.counter("redis.counter.roundtrips", "op", "lease");
+        returnsCounter = meterRegistry.counter("redis.counter.roundtrips", "op", "return");
+        lostCounter = meterRegistry.counter("redis.counter.unreturned");
+        Gauge.builder("redis.counter.outstanding", this, LeasedCounters::outstanding)
+                .description("Leased increments not handed out yet: how far Redis totals run ahead")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds one to the counter; throws RedisConnectionFailureException when a new block is needed
+     * and Redis is unavailable
+     */
+    public long increment(String key) {
+        int blockSize = Math.max(properties().getBlockSize(), 1);
+        while (true) {
+            CounterLease lease = leases.computeIfAbsent(key, k -> new CounterLease());
+            long value = lease.increment(size -> lease(key, size), blockSize, System.nanoTime());
+            if (value != CounterLease.CLOSED) {
+                incrementsCounter.increment();
+                return value;
+            }
+            // Released by the idle returner meanwhile; drop it so the next pass starts a new lease
+            leases.remove(key, lease);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        returner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "counter-leases");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(properties().getIdleTimeout().toMillis() / 2, 100);
+        returner.scheduleWithFixedDelay(this::returnIdle, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (returner != null) {
+            returner.shutdownNow();
+        }
+        giveBack(new ArrayList<>(leases.keySet()));
+    }
+
+    void returnIdle() {
+        long cutoff = System.nanoTime() - properties().getIdleTimeout().toNanos();
+        List<String> idle = new ArrayList<>();
+        leases.forEach((key, lease) -> {
+            if (lease.isIdleSince(cutoff)) {
+                idle.add(key);
+            }
+        });
+        giveBack(idle);
+    }
+
+    private long lease(String key, long size) {
+        Long value = redisService.increment(key, size);
+        leasesCounter.increment();
+        return value;
+    }
+
+    private void giveBack(List<String> keys) {
+        RedisBatch batch = new RedisBatch();
+        long unused = 0;
+        for (String key : keys) {
+            CounterLease lease = leases.remove(key);
+            long remaining = lease != null ? lease.release() : 0;
+            if (remaining > 0) {
+                batch.increment(key, -remaining);
+                unused += remaining;
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            redisService.executeBatch(batch);
+            returnsCounter.increment();
+        } catch (Exception e) {
+            lostCounter.increment(unused);
+            log.warn("Could not return {} leased increments of {} counters, totals stay ahead by that much: {}",
+                    unused, batch.size(), e.getMessage());
+        }
+    }
+
+    private double outstanding() {
+        long total = 0;
+        for (CounterLease lease : leases.values()) {
+            total += lease.remaining();
+        }
+        return total;
+    }
+
+    private ApplicationProperties.Redis.Counters properties() {
+        return applicationProperties.getRedis().getCounters();
+    }
+}
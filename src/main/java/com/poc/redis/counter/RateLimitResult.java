@@ -0,0 +1,9 @@
+package com.poc.redis.counter;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one rate-limit check; retryAfter is zero when allowed
+ */
+public record RateLimitResult(boolean allowed, long remaining, Duration retryAfter) {
+}
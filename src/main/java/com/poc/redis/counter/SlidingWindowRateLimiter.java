@@ -0,0 +1,100 @@
+package com.poc.redis.counter;
+
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sliding-window rate limiter shared by all instances: one Lua call per check.
+ * <ul>
+ *   <li>Each permitted call is a member of a sorted set scored by Redis server time, so the limit
+ *       holds over any window-long interval (no burst at fixed-window boundaries) and instance
+ *       clocks do not matter.</li>
+ *   <li>Exact, at the cost of one entry per permitted call: memory per key grows with the limit.</li>
+ *   <li>Rejected calls are not recorded, so a client retrying too early does not extend its wait.</li>
+ * </ul>
+ * While Redis is unavailable calls are allowed or rejected according to failOpen.
+ */
+@Component
+@Slf4j
+public class SlidingWindowRateLimiter {
+
+    private static final String KEY_PREFIX = "app-ratelimit:";
+
+    // KEYS[1] window set; ARGV[1] window ms, ARGV[2] limit, ARGV[3] unique member suffix
+    // Returns {allowed 1/0, calls in window, ms until the oldest call leaves the window}
+    private static final RedisScript<List> ACQUIRE = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local window = tonumber(ARGV[1])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+            local count = redis.call('ZCARD', KEYS[1])
+            if count < tonumber(ARGV[2]) then
+              redis.call('ZADD', KEYS[1], now, now .. '-' .. ARGV[3])
+              redis.call('PEXPIRE', KEYS[1], window)
+              return {1, count + 1, 0}
+            end
+            local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+            return {0, count, tonumber(oldest[2]) + window - now}
+            """, List.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Records one call for key if fewer than limit calls were permitted within the last window
+     */
+    public RateLimitResult tryAcquire(String key, int limit, Duration window) {
+        if (!circuitBreaker.allowRequest()) {
+            return unavailable(key, limit, window, null);
+        }
+        List<?> reply;
+        try {
+            reply = stringRedisTemplate.execute(ACQUIRE, List.of(KEY_PREFIX + key),
+                    Long.toString(window.toMillis()), Integer.toString(limit),
+                    Long.toHexString(ThreadLocalRandom.current().nextLong()));
+            circuitBreaker.recordSuccess();
+        } catch (RuntimeException e) {
+            // Outages (connection errors, timeouts, failover) fall back to failOpen; script errors are bugs
+            if (circuitBreaker.recordFailure(e)) {
+                return unavailable(key, limit, window, e);
+            }
+            throw e;
+        }
+        boolean allowed = ((Number) reply.get(0)).longValue() == 1;
+        long count = ((Number) reply.get(1)).longValue();
+        long retryAfterMillis = Math.max(((Number) reply.get(2)).longValue(), 0);
+        meterRegistry.counter("redis.ratelimit.calls", "result", allowed ? "allowed" : "rejected").increment();
+        return new RateLimitResult(allowed, Math.max(limit - count, 0), Duration.ofMillis(retryAfterMillis));
+    }
+
+    private RateLimitResult unavailable(String key, int limit, Duration window, Exception cause) {
+        boolean failOpen = applicationProperties.getRedis().getRateLimit().isFailOpen();
+        meterRegistry.counter("redis.ratelimit.calls", "result", failOpen ? "unchecked" : "unavailable").increment();
+        if (cause != null) {
+            log.debug("Rate limit check for {} failed: {}", key, cause.getMessage());
+        }
+        return failOpen
+                ? new RateLimitResult(true, limit, Duration.ZERO)
+                : new RateLimitResult(false, 0, window);
+    }
+}
@@ -0,0 +1,22 @@
+package com.poc.redis.dao;
+
+import com.poc.redis.model.User;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk write fragment of {@link UserRepository} for paths that must bypass per-entity persists
+ */
+public interface UserBulkRepository {
+
+    /**
+     * Inserts the users as JDBC batches of {@code batchSize} rows and assigns the generated IDs
+     */
+    List<User> insertAll(List<User> users, int batchSize);
+
+    /**
+     * Writes name, email and designation of existing users as JDBC batches; returns rows updated
+     */
+    int updateAll(Collection<User> users, int batchSize);
+}
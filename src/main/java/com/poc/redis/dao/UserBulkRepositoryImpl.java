@@ -0,0 +1,100 @@
+package com.poc.redis.dao;
+
+import com.poc.redis.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IDENTITY ids make Hibernate insert row by row, so bulk inserts go through JDBC batches.
+ * With rewriteBatchedStatements on the MySQL URL each batch is sent as one multi-row INSERT
+ * and the driver still returns every generated key.
+ */
+public class UserBulkRepositoryImpl implements UserBulkRepository {
+
+    private static final String INSERT_SQL =
+            "insert into user (name, email, designation, name_lower) values (?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "update user set name = ?, email = ?, designation = ?, name_lower = ? where id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<User> insertAll(List<User> users, int batchSize) {
+        checkBatchSize(batchSize);
+        for (int from = 0; from < users.size(); from += batchSize) {
+            insertBatch(users.subList(from, Math.min(from + batchSize, users.size())));
+        }
+        return users;
+    }
+
+    @Override
+    @Transactional
+    public int updateAll(Collection<User> users, int batchSize) {
+        checkBatchSize(batchSize);
+        List<Object[]> rows = users.stream()
+                .map(user -> new Object[]{user.getName(), user.getEmail(), user.getDesignation(),
+                        User.normalizeName(user.getName()), user.getId()})
+                .toList();
+        int updated = 0;
+        for (int[] counts : jdbcTemplate.batchUpdate(UPDATE_SQL, rows, batchSize,
+                (ps, row) -> {
+                    for (int i = 0; i < row.length; i++) {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                })) {
+            for (int count : counts) {
+                // The driver reports SUCCESS_NO_INFO (-2) for rewritten batches
+                updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return updated;
+    }
+
+    private static void checkBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+    }
+
+    private void insertBatch(List<User> batch) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = batch.get(i);
+                        ps.setString(1, user.getName());
+                        ps.setString(2, user.getEmail());
+                        ps.setString(3, user.getDesignation());
+                        ps.setString(4, User.normalizeName(user.getName()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < batch.size(); i++) {
+            User user = batch.get(i);
+            user.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            user.setNameLower(User.normalizeName(user.getName()));
+        }
+    }
+}
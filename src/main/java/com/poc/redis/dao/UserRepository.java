@@ -1,10 +1,40 @@
 package com.poc.redis.dao;
 
 import com.poc.redis.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserBulkRepository {
+
+    // All IDs under one name, lowest first, for filling the name index
+    @Query("select u.id from User u where u.nameLower = :nameLower order by u.id")
+    List<Long> findIdsByNameLower(@Param("nameLower") String nameLower);
+
+    // Keyset paging: the next page starts after the last ID seen, so deep pages cost the same as the first
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Same paging over the primary key only, for rebuilding the ID filter without loading rows
+    @Query("select u.id from User u where u.id > :after order by u.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    // Rows as plain objects, not managed entities: a long export does not fill the persistence context
+    @Query("select new com.poc.redis.model.User(u.id, u.name, u.email, u.designation) from User u"
+            + " where u.id > :after order by u.id")
+    List<User> findDetachedAfter(@Param("after") Long after, Pageable pageable);
+
+    // Fills name_lower for rows written before the column existed
+    @Transactional
+    @Modifying
+    @Query("update User u set u.nameLower = lower(u.name) where u.nameLower is null and u.name is not null")
+    int backfillNameLower();
 }
 
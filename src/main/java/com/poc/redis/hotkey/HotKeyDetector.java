@@ -0,0 +1,182 @@
+package com.poc.redis.hotkey;
+
+import com.poc.redis.config.ApplicationProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Finds the most requested keys from a sample of reads.
+ * <ul>
+ *   <li>One read in sampleRate is counted in a count-min sketch; estimates only ever overcount.</li>
+ *   <li>Keys whose estimate reaches minSamples compete for topK slots; the smallest is dropped.</li>
+ *   <li>Every decayInterval all counts are halved, so keys that cool down fall out.</li>
+ * </ul>
+ * Callers check {@link #sample()} first; unsampled reads cost one random number and no allocation,
+ * and when disabled the check is a single field read.
+ */
+@Slf4j
+public class HotKeyDetector {
+
+    private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F, 0x165667B1, 0xD3A2646C};
+
+    private final boolean enabled;
+    private final int sampleMask;
+    private final int depth;
+    private final int widthShift;
+    private final int widthMask;
+    private final AtomicLongArray counters;
+    private final int topK;
+    private final long minSamples;
+    private final long decayMillis;
+    private final Map<HotKey, Long> candidates = new HashMap<>();
+    private ScheduledExecutorService decayer;
+
+    public HotKeyDetector(ApplicationProperties.Redis.HotKeys properties) {
+        this.enabled = properties.isEnabled();
+        this.sampleMask = ceilPowerOfTwo(properties.getSampleRate()) - 1;
+        this.depth = Math.min(Math.max(properties.getDepth(), 1), SEEDS.length);
+        int width = ceilPowerOfTwo(properties.getWidth());
+        this.widthShift = 32 - Integer.numberOfTrailingZeros(width);
+        this.widthMask = width - 1;
+        this.counters = new AtomicLongArray(enabled ? depth * width : 0);
+        this.topK = properties.getTopK();
+        this.minSamples = properties.getMinSamples();
+        this.decayMillis = properties.getDecayInterval().toMillis();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True for the reads that should be passed to {@link #record}
+     */
+    public boolean sample() {
+        return enabled && (ThreadLocalRandom.current().nextInt() & sampleMask) == 0;
+    }
+
+    /**
+     * Counts one sampled read of key in source (a cache name, or "redis" for RedisService);
+     * returns true when the key is currently among the hot keys
+     */
+    public boolean record(String source, Object key) {
+        int hash = source.hashCode() * 31 + key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, hash)));
+        }
+        if (estimate < minSamples) {
+            return false;
+        }
+        return offer(new HotKey(source, String.valueOf(key)), estimate);
+    }
+
+    public boolean isHot(String source, Object key) {
+        HotKey hotKey = new HotKey(source, String.valueOf(key));
+        synchronized (candidates) {
+            return candidates.containsKey(hotKey);
+        }
+    }
+
+    /**
+     * Current hot keys, hottest first; requests are estimated as samples * sampleRate since the
+     * last decay halved them
+     */
+    public List<Entry> hotKeys() {
+        List<Entry> entries = new ArrayList<>();
+        synchronized (candidates) {
+            candidates.forEach((key, samples) ->
+                    entries.add(new Entry(key.source(), key.key(), samples * (sampleMask + 1L))));
+        }
+        entries.sort(Comparator.comparingLong(Entry::estimatedRequests).reversed());
+        return entries;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        decayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-key-decay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        decayer.scheduleWithFixedDelay(this::decay, decayMillis, decayMillis, TimeUnit.MILLISECONDS);
+        log.info("Hot-key detection enabled - sampling 1 in {}, top {}, decay every {} ms",
+                sampleMask + 1, topK, decayMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (decayer != null) {
+            decayer.shutdownNow();
+        }
+    }
+
+    /**
+     * Halves every counter and candidate; concurrent increments may be lost, which only
+     * makes the sketch forget slightly faster
+     */
+    void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            long value = counters.get(i);
+            if (value != 0) {
+                counters.set(i, value >>> 1);
+            }
+        }
+        synchronized (candidates) {
+            candidates.replaceAll((key, samples) -> samples >>> 1);
+            candidates.values().removeIf(samples -> samples < minSamples);
+        }
+    }
+
+    private boolean offer(HotKey key, long estimate) {
+        synchronized (candidates) {
+            if (candidates.containsKey(key) || candidates.size() < topK) {
+                candidates.put(key, estimate);
+                return true;
+            }
+            Map.Entry<HotKey, Long> coldest = null;
+            for (Map.Entry<HotKey, Long> candidate : candidates.entrySet()) {
+                if (coldest == null || candidate.getValue() < coldest.getValue()) {
+                    coldest = candidate;
+                }
+            }
+            if (coldest == null || coldest.getValue() >= estimate) {
+                return false;
+            }
+            candidates.remove(coldest.getKey());
+            candidates.put(key, estimate);
+            return true;
+        }
+    }
+
+    private int index(int row, int hash) {
+        int mixed = (hash ^ (hash >>> 16)) * SEEDS[row];
+        return (row << (32 - widthShift)) + ((mixed >>> widthShift) & widthMask);
+    }
+
+    private static int ceilPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    private record HotKey(String source, String key) {
+    }
+
+    public record Entry(String source, String key, long estimatedRequests) {
+    }
+}
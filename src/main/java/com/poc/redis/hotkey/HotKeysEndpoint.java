@@ -0,0 +1,31 @@
+package com.poc.redis.hotkey;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /actuator/hotkeys - the keys the {@link HotKeyDetector} currently ranks as hot
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        List<HotKeyDetector.Entry> entries = hotKeyDetector.hotKeys();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", hotKeyDetector.isEnabled());
+        body.put("count", entries.size());
+        body.put("keys", entries);
+        return body;
+    }
+}
@@ -0,0 +1,25 @@
+package com.poc.redis.metrics;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets one in every {@code 2^n} hot-path calls through to DEBUG logging.
+ * When DEBUG is off the check is a single level lookup, with no counter update or formatting.
+ */
+public final class LogSampler {
+
+    private final Logger logger;
+    private final long mask;
+    private final AtomicLong calls = new AtomicLong();
+
+    public LogSampler(Logger logger, int powerOfTwo) {
+        this.logger = logger;
+        this.mask = (1L << powerOfTwo) - 1;
+    }
+
+    public boolean sample() {
+        return logger.isDebugEnabled() && (calls.getAndIncrement() & mask) == 0;
+    }
+}
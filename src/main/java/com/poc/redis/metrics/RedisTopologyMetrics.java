@@ -0,0 +1,105 @@
+package com.poc.redis.metrics;
+
+import com.poc.redis.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.connection.RedisServer;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sentinel topology gauges, refreshed in the background so scrapes never reach Sentinel.
+ * <ul>
+ *   <li>redis.sentinel.up - 1 when the last poll succeeded</li>
+ *   <li>redis.sentinel.replicas / redis.sentinel.peers - as reported for the monitored master</li>
+ *   <li>redis.sentinel.master.changes - master address changes seen by this instance</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class RedisTopologyMetrics {
+
+    private static final long POLL_SECONDS = 15;
+
+    @Autowired
+    private LettuceConnectionFactory redisConnectionFactory;
+    @Autowired
+    private ApplicationProperties applicationProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong up = new AtomicLong();
+    private final AtomicLong replicas = new AtomicLong();
+    private final AtomicLong peers = new AtomicLong();
+    private Counter masterChanges;
+    private volatile String masterAddress;
+    private ScheduledExecutorService poller;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!applicationProperties.getRedis().getSentinel().isEnabled()) {
+            return;
+        }
+        Gauge.builder("redis.sentinel.up", up, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("redis.sentinel.replicas", replicas, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("redis.sentinel.peers", peers, AtomicLong::get).register(meterRegistry);
+        masterChanges = meterRegistry.counter("redis.sentinel.master.changes");
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-topology-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, 0, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    private void poll() {
+        String masterName = applicationProperties.getRedis().getSentinel().getMaster();
+        try (RedisSentinelConnection sentinel = redisConnectionFactory.getSentinelConnection()) {
+            RedisServer master = sentinel.masters().stream()
+                    .filter(server -> masterName.equals(server.getName()))
+                    .findFirst()
+                    .orElse(null);
+            if (master == null) {
+                up.set(0);
+                return;
+            }
+            replicas.set(orZero(master.getNumberReplicas()));
+            peers.set(orZero(master.getNumberOtherSentinels()));
+            String address = master.getHost() + ":" + master.getPort();
+            if (masterAddress != null && !Objects.equals(masterAddress, address)) {
+                log.warn("Sentinel master '{}' moved from {} to {}", masterName, masterAddress, address);
+                masterChanges.increment();
+            }
+            masterAddress = address;
+            up.set(1);
+        } catch (Exception e) {
+            up.set(0);
+            log.debug("Sentinel topology poll failed: {}", e.getMessage());
+        }
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+}
@@ -1,16 +1,19 @@
 package com.poc.redis.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
+import lombok.ToString;
 
 import java.io.Serializable;
+import java.util.Locale;
 
 @Entity
+@Table(indexes = @Index(name = "idx_user_name_lower", columnList = "name_lower"))
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class User implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -18,4 +21,29 @@ public class User implements Serializable {
     private String name;
     private String email;
     private String designation;
+
+    // Lower-cased copy of name so name lookups can use an index instead of a table scan
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Column(name = "name_lower")
+    private String nameLower;
+
+    public User(Long id, String name, String email, String designation) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.designation = designation;
+        syncNameLower();
+    }
+
+    public static String normalizeName(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncNameLower() {
+        this.nameLower = normalizeName(name);
+    }
 }
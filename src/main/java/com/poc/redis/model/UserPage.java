@@ -0,0 +1,9 @@
+package com.poc.redis.model;
+
+import java.util.List;
+
+/**
+ * One page of GET /users/page; nextAfter is the cursor for the following page, null on the last one
+ */
+public record UserPage(List<User> users, Long nextAfter) {
+}
@@ -0,0 +1,108 @@
+package com.poc.redis.resilience;
+
+import com.poc.redis.config.ApplicationProperties;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.lettuce.core.protocol.RedisCommand;
+
+import java.net.SocketAddress;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lettuce command timeout that follows observed latency, computed the way TCP computes its
+ * retransmission timeout (RFC 6298): smoothed latency plus four times its mean deviation,
+ * kept between min and max.
+ * <ul>
+ *   <li>Fed by every completed command through {@link #recorder}.</li>
+ *   <li>A timeout doubles the current value (up to max), so a server that became uniformly
+ *       slower is not timed out forever before any completion can raise the average.</li>
+ *   <li>Blocking, script and bulk commands (WAIT, XREADGROUP, EVALSHA, SCAN, UNLINK, MGET, BITOP...)
+ *       always get max and do not feed the estimate; their latency says nothing about the server's health.</li>
+ * </ul>
+ * Pipelined batches are timed per command, so min has to cover the largest pipeline a caller sends.
+ * Updates are racy by design: a lost sample only makes the estimate slightly less smooth.
+ */
+public class AdaptiveCommandTimeout extends TimeoutOptions.TimeoutSource {
+
+    private static final Set<String> MAX_TIMEOUT_COMMANDS = Set.of(
+            // blocking
+            "WAIT", "WAITAOF", "BLPOP", "BRPOP", "BRPOPLPUSH", "BLMOVE", "BLMPOP", "BZPOPMIN", "BZPOPMAX",
+            "BZMPOP", "XREAD", "XREADGROUP",
+            // scripts
+            "EVAL", "EVALSHA", "EVAL_RO", "EVALSHA_RO", "FCALL", "FCALL_RO", "SCRIPT",
+            // bulk and keyspace
+            "SCAN", "KEYS", "UNLINK", "DEL", "MGET", "MSET", "BITOP", "FLUSHALL", "FLUSHDB", "INFO");
+
+    private final boolean adaptive;
+    private final long minNanos;
+    private final long maxNanos;
+    private volatile long smoothedNanos;
+    private volatile long deviationNanos;
+
+    public AdaptiveCommandTimeout(ApplicationProperties.Redis.CommandTimeout properties) {
+        this.adaptive = properties.isAdaptive();
+        this.minNanos = properties.getMin().toNanos();
+        this.maxNanos = properties.getMax().toNanos();
+        this.smoothedNanos = properties.getInitial().toNanos();
+        this.deviationNanos = 0;
+    }
+
+    @Override
+    public long getTimeout(RedisCommand<?, ?, ?> command) {
+        return isExempt(command.getType()) ? maxNanos : currentNanos();
+    }
+
+    static boolean isExempt(ProtocolKeyword commandType) {
+        return commandType != null && MAX_TIMEOUT_COMMANDS.contains(commandType.toString());
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+        return TimeUnit.NANOSECONDS;
+    }
+
+    public long currentNanos() {
+        if (!adaptive) {
+            return maxNanos;
+        }
+        long timeout = smoothedNanos + 4 * deviationNanos;
+        return Math.min(maxNanos, Math.max(minNanos, timeout));
+    }
+
+    public void record(long latencyNanos) {
+        long smoothed = smoothedNanos;
+        long error = latencyNanos - smoothed;
+        deviationNanos += (Math.abs(error) - deviationNanos) >> 2;
+        smoothedNanos = smoothed + (error >> 3);
+    }
+
+    /**
+     * Called when a command timed out
+     */
+    public void backOff() {
+        smoothedNanos = Math.min(maxNanos, Math.max(smoothedNanos, minNanos) * 2);
+    }
+
+    /**
+     * Latency recorder that feeds this timeout and then the given recorder (metrics)
+     */
+    public CommandLatencyRecorder recorder(CommandLatencyRecorder delegate) {
+        return new CommandLatencyRecorder() {
+            @Override
+            public void recordCommandLatency(SocketAddress local, SocketAddress remote, ProtocolKeyword commandType,
+                                             long firstResponseLatency, long completionLatency) {
+                if (!isExempt(commandType)) {
+                    record(completionLatency);
+                }
+                delegate.recordCommandLatency(local, remote, commandType, firstResponseLatency, completionLatency);
+            }
+
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+        };
+    }
+}
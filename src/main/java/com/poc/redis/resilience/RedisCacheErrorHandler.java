@@ -0,0 +1,47 @@
+package com.poc.redis.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+
+/**
+ * Last line for cache errors that escape the cache decorators: Redis outages are counted by the
+ * circuit breaker and the operation is skipped (a read becomes a miss); anything else is rethrown
+ */
+@Slf4j
+public class RedisCacheErrorHandler implements CacheErrorHandler {
+
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public RedisCacheErrorHandler(RedisCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        skipOrRethrow(exception, "read", cache, key);
+    }
+
+    @Override
+    public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+        skipOrRethrow(exception, "write", cache, key);
+    }
+
+    @Override
+    public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+        skipOrRethrow(exception, "eviction", cache, key);
+    }
+
+    @Override
+    public void handleCacheClearError(RuntimeException exception, Cache cache) {
+        skipOrRethrow(exception, "clear", cache, "*");
+    }
+
+    private void skipOrRethrow(RuntimeException exception, String operation, Cache cache, Object key) {
+        if (!circuitBreaker.recordFailure(exception)) {
+            throw exception;
+        }
+        log.warn("Cache {} for {}::{} failed, continuing without cache: {}", operation, cache.getName(), key,
+                exception.getMessage());
+    }
+}
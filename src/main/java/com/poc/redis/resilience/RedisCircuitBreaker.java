@@ -0,0 +1,273 @@
+package com.poc.redis.resilience;
+
+import com.poc.redis.config.ApplicationProperties;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisConnectionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opens after failureThreshold consecutive Redis outages (connection failures, timeouts,
+ * READONLY/LOADING/MASTERDOWN/CLUSTERDOWN replies) and keeps cache and RedisService traffic off
+ * Redis until it is healthy again.
+ * <ul>
+ *   <li>While open, callers skip Redis: cache reads are misses served from the database, and
+ *       cache writes and evictions are remembered instead of sent.</li>
+ *   <li>A probe writes a short-lived key every probeInterval; probesToClose successes in a row
+ *       (the new master accepting writes after a failover) close the circuit.</li>
+ *   <li>Before closing, the remembered keys are evicted so no entry written before the outage
+ *       outlives a change made during it; past maxPendingEvictions whole caches are cleared.</li>
+ * </ul>
+ * Closed-state checks are a single volatile read.
+ */
+@Slf4j
+public class RedisCircuitBreaker {
+
+    private static final String PROBE_KEY_PREFIX = "app-health:circuit-probe:";
+    private static final Duration PROBE_TTL = Duration.ofSeconds(30);
+
+    private final ApplicationProperties.Redis.CircuitBreaker properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AdaptiveCommandTimeout commandTimeout;
+    private final String probeKey = PROBE_KEY_PREFIX + ManagementFactory.getRuntimeMXBean().getName();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger consecutiveProbes = new AtomicInteger();
+    private final AtomicLong openedAtNanos = new AtomicLong();
+    private final Map<Cache, Set<Object>> pendingEvictions = new ConcurrentHashMap<>();
+    private final Set<Cache> pendingClears = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final ScheduledExecutorService prober;
+    private volatile boolean open;
+    private ScheduledFuture<?> probeTask;
+
+    private final Counter opened;
+    private final Counter closed;
+    private final Timer degraded;
+
+    public RedisCircuitBreaker(ApplicationProperties.Redis.CircuitBreaker properties,
+                               StringRedisTemplate stringRedisTemplate, AdaptiveCommandTimeout commandTimeout,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.commandTimeout = commandTimeout;
+        this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-circuit-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.opened = Counter.builder("redis.circuit.transitions").tag("state", "open").register(meterRegistry);
+        this.closed = Counter.builder("redis.circuit.transitions").tag("state", "closed").register(meterRegistry);
+        this.degraded = Timer.builder("redis.circuit.degraded")
+                .description("Time spent with Redis bypassed, per open period")
+                .register(meterRegistry);
+        Gauge.builder("redis.circuit.open", this, breaker -> breaker.isOpen() ? 1 : 0).register(meterRegistry);
+        FunctionCounter.builder("redis.circuit.rejected", rejected, LongAdder::sum)
+                .description("Redis calls skipped while the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("redis.command.timeout", commandTimeout, timeout -> timeout.currentNanos() / 1_000_000.0)
+                .description("Current Lettuce command timeout in milliseconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * False while open; the caller must then skip Redis
+     */
+    public boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * For callers that cannot degrade on their own: throws while the circuit is open
+     */
+    public void checkAvailable() {
+        if (!allowRequest()) {
+            throw new RedisConnectionFailureException("Redis circuit is open, command not sent");
+        }
+    }
+
+    public void recordSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * Returns true when the exception was a Redis outage (and was counted)
+     */
+    public boolean recordFailure(Throwable failure) {
+        if (!isOutage(failure)) {
+            return false;
+        }
+        if (isTimeout(failure)) {
+            commandTimeout.backOff();
+        }
+        if (isEnabled() && consecutiveFailures.incrementAndGet() >= properties.getFailureThreshold()) {
+            tripOpen(failure);
+        }
+        return true;
+    }
+
+    /**
+     * Remembers a cache key whose write or eviction did not reach Redis
+     */
+    public void deferEviction(Cache cache, Object key) {
+        if (pendingClears.contains(cache)) {
+            return;
+        }
+        if (pendingCount.incrementAndGet() > properties.getMaxPendingEvictions()) {
+            deferClear(cache);
+            return;
+        }
+        pendingEvictions.computeIfAbsent(cache, c -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    public void deferClear(Cache cache) {
+        pendingClears.add(cache);
+        Set<Object> keys = pendingEvictions.remove(cache);
+        if (keys != null) {
+            pendingCount.addAndGet(-keys.size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        prober.shutdownNow();
+    }
+
+    private synchronized void tripOpen(Throwable failure) {
+        if (open) {
+            return;
+        }
+        open = true;
+        openedAtNanos.set(System.nanoTime());
+        consecutiveProbes.set(0);
+        opened.increment();
+        log.warn("Redis circuit OPEN after {} consecutive failures, bypassing Redis: {}",
+                consecutiveFailures.get(), failure.getMessage());
+        long intervalMillis = properties.getProbeInterval().toMillis();
+        probeTask = prober.scheduleWithFixedDelay(this::probe, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void probe() {
+        try {
+            stringRedisTemplate.opsForValue().set(probeKey, Long.toString(System.currentTimeMillis()), PROBE_TTL);
+        } catch (Exception e) {
+            consecutiveProbes.set(0);
+            if (isTimeout(e)) {
+                commandTimeout.backOff();
+            }
+            log.debug("Redis circuit probe failed: {}", e.getMessage());
+            return;
+        }
+        if (consecutiveProbes.incrementAndGet() >= properties.getProbesToClose()) {
+            close();
+        }
+    }
+
+    private synchronized void close() {
+        if (!open) {
+            return;
+        }
+        try {
+            replayEvictions();
+        } catch (Exception e) {
+            // Stay open; the next probes retry
+            consecutiveProbes.set(0);
+            log.warn("Redis circuit kept open, replaying evictions failed: {}", e.getMessage());
+            return;
+        }
+        long degradedNanos = System.nanoTime() - openedAtNanos.get();
+        consecutiveFailures.set(0);
+        open = false;
+        probeTask.cancel(false);
+        closed.increment();
+        degraded.record(degradedNanos, TimeUnit.NANOSECONDS);
+        log.info("Redis circuit CLOSED after {} ms degraded", TimeUnit.NANOSECONDS.toMillis(degradedNanos));
+    }
+
+    private void replayEvictions() {
+        for (Cache cache : pendingClears) {
+            cache.clear();
+            pendingClears.remove(cache);
+        }
+        for (Map.Entry<Cache, Set<Object>> entry : pendingEvictions.entrySet()) {
+            for (Object key : entry.getValue()) {
+                entry.getKey().evict(key);
+                entry.getValue().remove(key);
+                pendingCount.decrementAndGet();
+            }
+        }
+        pendingEvictions.values().removeIf(Set::isEmpty);
+        log.info("Replayed deferred cache evictions before closing the Redis circuit");
+    }
+
+    /**
+     * Connection loss, timeouts and the replies a node gives while it cannot serve
+     * (failover in progress, still loading, cluster slots uncovered)
+     */
+    static boolean isOutage(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisConnectionFailureException || cause instanceof RedisConnectionException
+                    || isTimeout(cause)) {
+                return true;
+            }
+            String message = cause.getMessage();
+            if (message != null && (message.startsWith("READONLY") || message.startsWith("LOADING")
+                    || message.startsWith("MASTERDOWN") || message.startsWith("CLUSTERDOWN"))) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTimeout(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueryTimeoutException || cause instanceof RedisCommandTimeoutException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
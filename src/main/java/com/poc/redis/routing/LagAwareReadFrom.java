@@ -0,0 +1,91 @@
+package com.poc.redis.routing;
+
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.models.role.RedisNodeDescription;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps the configured ReadFrom and narrows its candidates per read:
+ * <ul>
+ *   <li>replicas the {@link ReplicaLagMonitor} reports as lagging are skipped;</li>
+ *   <li>a read-your-writes requirement on the calling thread sends the read to the master, or
+ *       only to replicas known to be past the write's replication offset.</li>
+ * </ul>
+ * When no candidate is left the read goes to the master.
+ */
+public class LagAwareReadFrom extends ReadFrom {
+
+    private final ReadFrom delegate;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final boolean orderSensitive;
+
+    public LagAwareReadFrom(ReadFrom delegate, ReplicaLagMonitor replicaLagMonitor) {
+        this.delegate = delegate;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.orderSensitive = isOrderSensitive(delegate);
+    }
+
+    @Override
+    public List<RedisNodeDescription> select(Nodes nodes) {
+        ReadYourWrites.Requirement requirement = ReadYourWrites.current();
+        if (requirement != null && requirement.masterOnly()) {
+            return upstream(nodes);
+        }
+        List<RedisNodeDescription> candidates = delegate.select(nodes);
+        List<RedisNodeDescription> selected = new ArrayList<>(candidates.size());
+        for (RedisNodeDescription node : candidates) {
+            if (node.getRole().isReplica()) {
+                String address = address(node.getUri());
+                if (replicaLagMonitor.isLagging(address)) {
+                    continue;
+                }
+                if (requirement != null && !replicaLagMonitor.hasReached(address, requirement.minOffset())) {
+                    continue;
+                }
+            }
+            selected.add(node);
+        }
+        return selected.isEmpty() ? upstream(nodes) : selected;
+    }
+
+    // Lettuce uses the first node of an order-sensitive selection and a random one otherwise;
+    // filtering keeps the delegate's order, so its answer still applies
+    @Override
+    protected boolean isOrderSensitive() {
+        return orderSensitive;
+    }
+
+    // isOrderSensitive is protected in another package, so it can only be read reflectively
+    private static boolean isOrderSensitive(ReadFrom readFrom) {
+        try {
+            Method method = ReadFrom.class.getDeclaredMethod("isOrderSensitive");
+            method.setAccessible(true);
+            return (Boolean) method.invoke(readFrom);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static List<RedisNodeDescription> upstream(Nodes nodes) {
+        List<RedisNodeDescription> upstream = new ArrayList<>(1);
+        for (RedisNodeDescription node : nodes) {
+            if (node.getRole().isUpstream()) {
+                upstream.add(node);
+            }
+        }
+        return upstream;
+    }
+
+    private static String address(RedisURI uri) {
+        return uri.getHost() + ":" + uri.getPort();
+    }
+
+    @Override
+    public String toString() {
+        return "LagAwareReadFrom[" + delegate + "]";
+    }
+}
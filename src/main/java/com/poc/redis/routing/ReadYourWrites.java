@@ -0,0 +1,38 @@
+package com.poc.redis.routing;
+
+/**
+ * Per-thread read routing requirement for the current request.
+ * Set by {@link ReadYourWritesFilter} from the client's cookie and consulted by
+ * {@link LagAwareReadFrom} each time Lettuce picks a node for a read.
+ * Only blocking calls are covered: reactive reads are dispatched from other threads.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Requirement> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pinToMaster() {
+        CURRENT.set(Requirement.MASTER);
+    }
+
+    public static void requireOffset(long offset) {
+        CURRENT.set(new Requirement(false, offset));
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    static Requirement current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * masterOnly, or else replicas must have replicated at least up to minOffset
+     */
+    record Requirement(boolean masterOnly, long minOffset) {
+        static final Requirement MASTER = new Requirement(true, 0);
+    }
+}
@@ -0,0 +1,205 @@
+package com.poc.redis.routing;
+
+import com.poc.redis.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Read-your-writes across requests, tracked with a short-lived cookie.
+ * <ul>
+ *   <li>After a successful write request the response carries a cookie describing what the
+ *       client's next reads need: the master (MASTER, or WAIT that timed out) or a replica past
+ *       the master offset seen after the write (OFFSET). WAIT that reaches waitReplicas sets no
+ *       cookie.</li>
+ *   <li>On later requests the cookie is turned into a {@link ReadYourWrites} requirement until
+ *       the window ends.</li>
+ * </ul>
+ * The cookie is decided just before the response commits (first body write, flush or end of the
+ * request), when the handler's cache writes are done; bodies are not buffered.
+ * Reactive endpoints complete asynchronously and are not tracked.
+ */
+@Component
+@Slf4j
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "redis-ryw";
+    private static final String MASTER_MARKER = "m";
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+    @Autowired
+    private ReplicaAckWaiter replicaAckWaiter;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        ApplicationProperties.Redis.Sentinel sentinel = applicationProperties.getRedis().getSentinel();
+        return !sentinel.isEnabled() || !sentinel.getReadYourWrites().isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        applyCookie(request);
+        boolean trackWrite = isWrite(request.getMethod()) && !request.getRequestURI().contains("/reactive/");
+        if (!trackWrite) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                ReadYourWrites.clear();
+            }
+            return;
+        }
+        BeforeCommitResponse tracked = new BeforeCommitResponse(response, () -> {
+            if (response.getStatus() < 400) {
+                recordWrite(response);
+            }
+        });
+        try {
+            chain.doFilter(request, tracked);
+            // Responses without a body (204, empty 200) have not committed yet
+            tracked.beforeCommit();
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    private void applyCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                applyRequirement(cookie.getValue());
+                return;
+            }
+        }
+    }
+
+    // Cookie value: "<m|offset>.<valid-until-epoch-millis>"
+    private void applyRequirement(String value) {
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            return;
+        }
+        try {
+            if (System.currentTimeMillis() >= Long.parseLong(value.substring(dot + 1))) {
+                return;
+            }
+            String target = value.substring(0, dot);
+            if (MASTER_MARKER.equals(target)) {
+                ReadYourWrites.pinToMaster();
+            } else {
+                ReadYourWrites.requireOffset(Long.parseLong(target));
+            }
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed {} cookie: {}", COOKIE_NAME, value);
+        }
+    }
+
+    private void recordWrite(HttpServletResponse response) {
+        ApplicationProperties.Redis.Sentinel.ReadYourWrites settings =
+                applicationProperties.getRedis().getSentinel().getReadYourWrites();
+        String target = switch (settings.getMode()) {
+            case MASTER -> MASTER_MARKER;
+            case WAIT -> waitForReplicas(settings) ? null : MASTER_MARKER;
+            case OFFSET -> {
+                long offset = replicaLagMonitor.currentMasterOffset();
+                yield offset >= 0 ? Long.toString(offset) : MASTER_MARKER;
+            }
+        };
+        meterRegistry.counter("redis.ryw.writes", "mode", settings.getMode().name(),
+                "outcome", target == null ? "confirmed" : MASTER_MARKER.equals(target) ? "master" : "offset").increment();
+        if (target == null) {
+            return;
+        }
+        long validUntil = System.currentTimeMillis() + settings.getWindow().toMillis();
+        Cookie cookie = new Cookie(COOKIE_NAME, target + "." + validUntil);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, settings.getWindow().toSeconds() + 1));
+        response.addCookie(cookie);
+    }
+
+    private boolean waitForReplicas(ApplicationProperties.Redis.Sentinel.ReadYourWrites settings) {
+        return replicaAckWaiter.waitForReplicas(settings.getWaitReplicas(), settings.getWaitTimeout());
+    }
+
+    private static boolean isWrite(String method) {
+        return "POST".equals(method) || "PUT".equals(method) || "DELETE".equals(method) || "PATCH".equals(method);
+    }
+
+    /**
+     * Runs a callback once, before anything can commit the response; errors skip it
+     */
+    private static final class BeforeCommitResponse extends HttpServletResponseWrapper {
+
+        private final Runnable callback;
+        private boolean done;
+
+        BeforeCommitResponse(HttpServletResponse response, Runnable callback) {
+            super(response);
+            this.callback = callback;
+        }
+
+        void beforeCommit() {
+            if (!done) {
+                done = true;
+                callback.run();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeCommit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeCommit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            done = true;
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            done = true;
+            super.sendError(status, message);
+        }
+    }
+}
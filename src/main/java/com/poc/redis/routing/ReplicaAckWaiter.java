@@ -0,0 +1,112 @@
+package com.poc.redis.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs WAIT for read-your-writes on its own master connections, never on the shared multiplexed
+ * one: WAIT blocks its connection on the server, which would stall every other command queued
+ * behind it.
+ * <ul>
+ *   <li>WAIT covers the writes made on its own connection, so each call first INCRs a fence key;
+ *       that write's offset includes every write the request made on the shared connection.</li>
+ *   <li>At most maxConnections WAITs run at once; a caller that finds none free is answered
+ *       "not confirmed" and its client reads from the master instead.</li>
+ * </ul>
+ * A null connection factory (read-your-writes not in WAIT mode) confirms nothing.
+ */
+@Slf4j
+public class ReplicaAckWaiter {
+
+    private static final byte[] FENCE_KEY = "app-ryw:fence".getBytes(StandardCharsets.UTF_8);
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final int maxConnections;
+    private final BlockingQueue<RedisConnection> idle;
+    private final AtomicInteger open = new AtomicInteger();
+
+    public ReplicaAckWaiter(LettuceConnectionFactory connectionFactory, int maxConnections) {
+        this.connectionFactory = connectionFactory;
+        this.maxConnections = Math.max(maxConnections, 1);
+        this.idle = new ArrayBlockingQueue<>(this.maxConnections);
+    }
+
+    /**
+     * True when at least replicas replicas acknowledged everything written so far within timeout
+     */
+    public boolean waitForReplicas(int replicas, Duration timeout) {
+        if (connectionFactory == null) {
+            return false;
+        }
+        RedisConnection connection = acquire();
+        if (connection == null) {
+            return false;
+        }
+        boolean reusable = false;
+        try {
+            connection.execute("INCR", FENCE_KEY);
+            Long acknowledged = (Long) connection.execute("WAIT",
+                    Integer.toString(replicas).getBytes(StandardCharsets.UTF_8),
+                    Long.toString(timeout.toMillis()).getBytes(StandardCharsets.UTF_8));
+            reusable = true;
+            return acknowledged != null && acknowledged >= replicas;
+        } catch (Exception e) {
+            log.debug("WAIT failed, pinning reads to master: {}", e.getMessage());
+            return false;
+        } finally {
+            release(connection, reusable);
+        }
+    }
+
+    public void shutdown() {
+        RedisConnection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    private RedisConnection acquire() {
+        RedisConnection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        if (open.incrementAndGet() > maxConnections) {
+            open.decrementAndGet();
+            return null;
+        }
+        try {
+            return connectionFactory.getConnection();
+        } catch (Exception e) {
+            open.decrementAndGet();
+            log.debug("No connection for WAIT: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Connections that failed (e.g. the master moved) are replaced rather than reused
+    private void release(RedisConnection connection, boolean reusable) {
+        if (reusable && idle.offer(connection)) {
+            return;
+        }
+        open.decrementAndGet();
+        closeQuietly(connection);
+    }
+
+    private static void closeQuietly(RedisConnection connection) {
+        try {
+            connection.close();
+        } catch (Exception e) {
+            log.debug("Closing WAIT connection failed: {}", e.getMessage());
+        }
+    }
+}
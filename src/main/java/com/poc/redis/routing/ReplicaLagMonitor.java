@@ -0,0 +1,269 @@
+package com.poc.redis.routing;
+
+import com.poc.redis.config.ApplicationProperties;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls INFO replication on the current master and keeps each replica's offset and lag.
+ * <ul>
+ *   <li>A replica is lagging when it is not online, trails master_repl_offset by more than
+ *       maxOffsetLag bytes, or has not acknowledged for longer than maxLag.</li>
+ *   <li>Fails open: replicas it has no fresh data for are never reported as lagging.</li>
+ *   <li>Uses its own connection, resolved through Sentinel, so it does not depend on the
+ *       connection factory whose routing it feeds.</li>
+ * </ul>
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final Duration COMMAND_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ApplicationProperties.Redis redisProperties;
+    private final ClientResources clientResources;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> gaugedReplicas = ConcurrentHashMap.newKeySet();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private RedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private ScheduledExecutorService poller;
+
+    public ReplicaLagMonitor(ApplicationProperties.Redis redisProperties, ClientResources clientResources,
+                             MeterRegistry meterRegistry) {
+        this.redisProperties = redisProperties;
+        this.clientResources = clientResources;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Needed when lag-based exclusion or offset-based read-your-writes is on
+     */
+    public boolean isActive() {
+        ApplicationProperties.Redis.Sentinel sentinel = redisProperties.getSentinel();
+        return sentinel.isEnabled() && (sentinel.getReplicaLag().isEnabled()
+                || sentinel.getReadYourWrites().isEnabled()
+                && sentinel.getReadYourWrites().getMode() == ApplicationProperties.Redis.Sentinel.ReadYourWrites.Mode.OFFSET);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isActive()) {
+            return;
+        }
+        Gauge.builder("redis.replica.lagging", this, monitor -> monitor.snapshot.laggingCount())
+                .description("Replicas currently excluded from read routing")
+                .register(meterRegistry);
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-replica-lag");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = lag().getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Replica lag monitor started - maxOffsetLag: {} bytes, maxLag: {}, interval: {}",
+                lag().getMaxOffsetLag(), lag().getMaxLag(), lag().getPollInterval());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        closeConnection();
+        if (client != null) {
+            client.shutdown();
+            client = null;
+        }
+    }
+
+    public boolean isLagging(String address) {
+        if (!lag().isEnabled() || snapshot.isStale(staleAfterNanos())) {
+            return false;
+        }
+        ReplicaState state = snapshot.replicas().get(address);
+        return state != null && state.lagging();
+    }
+
+    /**
+     * True when the replica is known to have replicated at least up to offset
+     */
+    public boolean hasReached(String address, long offset) {
+        ReplicaState state = snapshot.replicas().get(address);
+        return state != null && state.offset() >= offset && !snapshot.isStale(staleAfterNanos());
+    }
+
+    /**
+     * Fresh master_repl_offset, read after a write so it covers that write; -1 when unavailable
+     */
+    public synchronized long currentMasterOffset() {
+        try {
+            return parse(connection().sync().info("replication"), lag()).masterOffset();
+        } catch (Exception e) {
+            log.debug("Could not read master replication offset: {}", e.getMessage());
+            closeConnection();
+            return -1;
+        }
+    }
+
+    private synchronized void poll() {
+        try {
+            Snapshot polled = parse(connection().sync().info("replication"), lag());
+            if (!polled.master()) {
+                // Failover: this connection now points at a demoted node; resolve the master again
+                log.info("Replica lag monitor connection no longer on the master, reconnecting");
+                closeConnection();
+                return;
+            }
+            polled.replicas().values().stream()
+                    .filter(state -> state.lagging() && !snapshot.replicas().getOrDefault(state.address(), state).lagging())
+                    .forEach(state -> log.warn("Replica {} dropped from read routing - {} bytes behind, last ack {}s ago, state {}",
+                            state.address(), polled.masterOffset() - state.offset(), state.lagSeconds(), state.state()));
+            polled.replicas().keySet().forEach(this::registerGauge);
+            snapshot = polled;
+        } catch (Exception e) {
+            log.debug("Replica lag poll failed: {}", e.getMessage());
+            closeConnection();
+        }
+    }
+
+    private void registerGauge(String address) {
+        if (gaugedReplicas.add(address)) {
+            Gauge.builder("redis.replica.offset.lag", this, monitor -> {
+                        Snapshot current = monitor.snapshot;
+                        ReplicaState state = current.replicas().get(address);
+                        return state != null ? current.masterOffset() - state.offset() : Double.NaN;
+                    })
+                    .description("Bytes the replica trails the master by")
+                    .baseUnit("bytes")
+                    .tag("replica", address)
+                    .register(meterRegistry);
+        }
+    }
+
+    private StatefulRedisConnection<String, String> connection() {
+        if (connection == null || !connection.isOpen()) {
+            if (client == null) {
+                client = RedisClient.create(clientResources);
+            }
+            connection = client.connect(sentinelUri());
+            connection.setTimeout(COMMAND_TIMEOUT);
+        }
+        return connection;
+    }
+
+    private void closeConnection() {
+        if (connection != null) {
+            connection.closeAsync();
+            connection = null;
+        }
+    }
+
+    private RedisURI sentinelUri() {
+        ApplicationProperties.Redis.Sentinel sentinel = redisProperties.getSentinel();
+        RedisURI.Builder builder = RedisURI.builder()
+                .withSentinelMasterId(sentinel.getMaster())
+                .withDatabase(sentinel.getDatabase())
+                .withTimeout(COMMAND_TIMEOUT);
+        for (String node : sentinel.getNodes()) {
+            String[] parts = node.split(":");
+            if (hasText(sentinel.getPassword())) {
+                builder.withSentinel(parts[0], Integer.parseInt(parts[1]), sentinel.getPassword());
+            } else {
+                builder.withSentinel(parts[0], Integer.parseInt(parts[1]));
+            }
+        }
+        if (hasText(redisProperties.getPassword())) {
+            builder.withPassword(redisProperties.getPassword().toCharArray());
+        }
+        return builder.build();
+    }
+
+    private long staleAfterNanos() {
+        return lag().getPollInterval().toNanos() * 3;
+    }
+
+    private ApplicationProperties.Redis.Sentinel.ReplicaLag lag() {
+        return redisProperties.getSentinel().getReplicaLag();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    /**
+     * Parses INFO replication, e.g.
+     * {@code slave0:ip=10.0.0.5,port=6379,state=online,offset=1234,lag=0} and {@code master_repl_offset:1234}
+     */
+    static Snapshot parse(String info, ApplicationProperties.Redis.Sentinel.ReplicaLag limits) {
+        boolean master = false;
+        long masterOffset = 0;
+        Map<String, Map<String, String>> replicaFields = new HashMap<>();
+        for (String line : info.split("\r?\n")) {
+            int colon = line.indexOf(':');
+            if (colon < 0 || line.startsWith("#")) {
+                continue;
+            }
+            String name = line.substring(0, colon);
+            String value = line.substring(colon + 1).trim();
+            if (name.equals("role")) {
+                master = value.equals("master");
+            } else if (name.equals("master_repl_offset")) {
+                masterOffset = Long.parseLong(value);
+            } else if (name.startsWith("slave") && Character.isDigit(name.charAt(name.length() - 1))) {
+                Map<String, String> fields = new HashMap<>();
+                for (String pair : value.split(",")) {
+                    int eq = pair.indexOf('=');
+                    if (eq > 0) {
+                        fields.put(pair.substring(0, eq), pair.substring(eq + 1));
+                    }
+                }
+                replicaFields.put(name, fields);
+            }
+        }
+        Map<String, ReplicaState> replicas = new HashMap<>();
+        for (Map<String, String> fields : replicaFields.values()) {
+            String address = fields.get("ip") + ":" + fields.get("port");
+            String state = fields.getOrDefault("state", "unknown");
+            long offset = Long.parseLong(fields.getOrDefault("offset", "0"));
+            long lagSeconds = Long.parseLong(fields.getOrDefault("lag", "0"));
+            boolean lagging = !"online".equals(state)
+                    || masterOffset - offset > limits.getMaxOffsetLag()
+                    || lagSeconds > limits.getMaxLag().toSeconds();
+            replicas.put(address, new ReplicaState(address, state, offset, lagSeconds, lagging));
+        }
+        return new Snapshot(master, masterOffset, Map.copyOf(replicas), System.nanoTime());
+    }
+
+    record ReplicaState(String address, String state, long offset, long lagSeconds, boolean lagging) {
+    }
+
+    record Snapshot(boolean master, long masterOffset, Map<String, ReplicaState> replicas, long takenAtNanos) {
+        static final Snapshot EMPTY = new Snapshot(false, 0, Map.of(), 0);
+
+        boolean isStale(long maxAgeNanos) {
+            return this == EMPTY || System.nanoTime() - takenAtNanos > maxAgeNanos;
+        }
+
+        long laggingCount() {
+            return replicas.values().stream().filter(ReplicaState::lagging).count();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.poc.redis.serializer;
+
+import com.poc.redis.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Schema-aware binary encoding for {@link User} and lists of users, with optional Deflate
+ * compression above a size threshold. Any other value is written by the delegate serializer.
+ * <p>
+ * Payload layout: one tag byte (user, user list or delegate; high bit set when deflated)
+ * followed by the body. Uncompressed delegate output is written untagged, so plain values
+ * stay readable by instances still running in JSON mode. On read, untagged JSON and
+ * JDK-serialized entries from before the rollout are recognised and decoded as before.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte TAG_USER = 0x01;
+    static final byte TAG_USER_LIST = 0x02;
+    static final byte TAG_DELEGATE = 0x03;
+    static final byte FLAG_DEFLATED = (byte) 0x80;
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int FIELD_ID = 1;
+    private static final int FIELD_NAME = 1 << 1;
+    private static final int FIELD_EMAIL = 1 << 2;
+    private static final int FIELD_DESIGNATION = 1 << 3;
+
+    private final RedisSerializer<Object> delegate;
+    private final RedisSerializer<Object> jdkSerializer = RedisSerializer.java();
+    private final boolean deflate;
+    private final int compressionThreshold;
+
+    private final Timer encodeTimer;
+    private final Timer decodeTimer;
+    private final DistributionSummary payloadSize;
+    private final Counter compressionSaved;
+
+    public CompactRedisSerializer(RedisSerializer<Object> delegate, boolean deflate, int compressionThreshold,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.deflate = deflate;
+        this.compressionThreshold = compressionThreshold;
+        this.encodeTimer = Timer.builder("redis.serializer.encode").tag("mode", "binary").register(meterRegistry);
+        this.decodeTimer = Timer.builder("redis.serializer.decode").tag("mode", "binary").register(meterRegistry);
+        this.payloadSize = DistributionSummary.builder("redis.serializer.payload.size")
+                .baseUnit("bytes").tag("mode", "binary").register(meterRegistry);
+        this.compressionSaved = Counter.builder("redis.serializer.compression.saved")
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        long start = System.nanoTime();
+        byte[] payload = frame(value);
+        encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        payloadSize.record(payload.length);
+        return payload;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            return decode(bytes);
+        } finally {
+            decodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private byte[] frame(Object value) {
+        byte tag;
+        byte[] body;
+        if (value instanceof User user) {
+            tag = TAG_USER;
+            Writer writer = new Writer();
+            writer.writeUser(user);
+            body = writer.toByteArray();
+        } else if (isUserList(value)) {
+            tag = TAG_USER_LIST;
+            List<?> users = (List<?>) value;
+            Writer writer = new Writer();
+            writer.writeVarLong(users.size());
+            for (Object user : users) {
+                writer.writeUser((User) user);
+            }
+            body = writer.toByteArray();
+        } else {
+            tag = TAG_DELEGATE;
+            body = delegate.serialize(value);
+        }
+
+        if (deflate && body.length >= compressionThreshold) {
+            byte[] compressed = deflate(body);
+            if (compressed.length < body.length) {
+                compressionSaved.increment(body.length - compressed.length);
+                return prepend((byte) (tag | FLAG_DEFLATED), compressed);
+            }
+        }
+        return tag == TAG_DELEGATE ? body : prepend(tag, body);
+    }
+
+    private Object decode(byte[] bytes) {
+        byte header = bytes[0];
+        int tag = header & 0x7F;
+        boolean tagged = tag >= TAG_USER && tag <= TAG_DELEGATE && (header == tag || (header & FLAG_DEFLATED) != 0);
+        if (!tagged) {
+            // Untagged payloads predate binary mode: JDK-serialized cache entries or Jackson JSON
+            if (bytes.length > 1 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED) {
+                return jdkSerializer.deserialize(bytes);
+            }
+            return delegate.deserialize(bytes);
+        }
+
+        byte[] body = (header & FLAG_DEFLATED) != 0
+                ? inflate(bytes, 1)
+                : Arrays.copyOfRange(bytes, 1, bytes.length);
+        if (tag == TAG_DELEGATE) {
+            return delegate.deserialize(body);
+        }
+        Reader reader = new Reader(body);
+        if (tag == TAG_USER) {
+            return reader.readUser();
+        }
+        int size = (int) reader.readVarLong();
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(reader.readUser());
+        }
+        return users;
+    }
+
+    private static boolean isUserList(Object value) {
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof User)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] prepend(byte header, byte[] body) {
+        byte[] framed = new byte[body.length + 1];
+        framed[0] = header;
+        System.arraycopy(body, 0, framed, 1, body.length);
+        return framed;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, input.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Truncated deflated payload");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt deflated payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+            super(64);
+        }
+
+        void writeUser(User user) {
+            int present = (user.getId() != null ? FIELD_ID : 0)
+                    | (user.getName() != null ? FIELD_NAME : 0)
+                    | (user.getEmail() != null ? FIELD_EMAIL : 0)
+                    | (user.getDesignation() != null ? FIELD_DESIGNATION : 0);
+            write(present);
+            if (user.getId() != null) {
+                writeVarLong(user.getId());
+            }
+            writeString(user.getName());
+            writeString(user.getEmail());
+            writeString(user.getDesignation());
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void writeString(String value) {
+            if (value != null) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(utf8.length);
+                write(utf8, 0, utf8.length);
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        User readUser() {
+            int present = bytes[position++];
+            Long id = (present & FIELD_ID) != 0 ? readVarLong() : null;
+            String name = (present & FIELD_NAME) != 0 ? readString() : null;
+            String email = (present & FIELD_EMAIL) != 0 ? readString() : null;
+            String designation = (present & FIELD_DESIGNATION) != 0 ? readString() : null;
+            return new User(id, name, email, designation);
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private String readString() {
+            int length = (int) readVarLong();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
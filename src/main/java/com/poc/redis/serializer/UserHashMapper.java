@@ -0,0 +1,47 @@
+package com.poc.redis.serializer;
+
+import com.poc.redis.model.User;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One hash field per {@link User} property, values as plain strings; null properties have no field
+ */
+public class UserHashMapper implements HashMapper<User, String, String> {
+
+    public static final String ID = "id";
+    public static final String NAME = "name";
+    public static final String EMAIL = "email";
+    public static final String DESIGNATION = "designation";
+    public static final List<String> FIELDS = List.of(ID, NAME, EMAIL, DESIGNATION);
+
+    @Override
+    public Map<String, String> toHash(User user) {
+        Map<String, String> hash = new HashMap<>(8);
+        if (user.getId() != null) {
+            hash.put(ID, user.getId().toString());
+        }
+        putIfNotNull(hash, NAME, user.getName());
+        putIfNotNull(hash, EMAIL, user.getEmail());
+        putIfNotNull(hash, DESIGNATION, user.getDesignation());
+        return hash;
+    }
+
+    @Override
+    public User fromHash(Map<String, String> hash) {
+        if (hash == null || hash.isEmpty()) {
+            return null;
+        }
+        String id = hash.get(ID);
+        return new User(id != null ? Long.valueOf(id) : null, hash.get(NAME), hash.get(EMAIL), hash.get(DESIGNATION));
+    }
+
+    private static void putIfNotNull(Map<String, String> hash, String field, String value) {
+        if (value != null) {
+            hash.put(field, value);
+        }
+    }
+}
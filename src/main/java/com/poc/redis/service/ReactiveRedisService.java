@@ -0,0 +1,65 @@
+package com.poc.redis.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking counterpart of {@link RedisService}
+ * Built on the same Lettuce connection factory, so the same read/write routing applies:
+ * - Reads prefer replicas, writes go to master
+ * - No servlet thread is parked while a command is in flight
+ */
+@Service
+@Slf4j
+public class ReactiveRedisService {
+
+    @Autowired
+    private ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    /**
+     * Write operations - routed to master
+     */
+    public Mono<Boolean> setValue(String key, Object value) {
+        return reactiveRedisTemplate.opsForValue().set(key, value);
+    }
+
+    /**
+     * Set with expiration - routed to master
+     */
+    public Mono<Boolean> setValueWithTTL(String key, Object value, long seconds) {
+        return reactiveRedisTemplate.opsForValue().set(key, value, Duration.ofSeconds(seconds));
+    }
+
+    /**
+     * Read operations - prefer replica, fallback to master; empty when the key is missing
+     */
+    public Mono<Object> getValue(String key) {
+        return reactiveRedisTemplate.opsForValue().get(key);
+    }
+
+    /**
+     * Delete operations - routed to master
+     */
+    public Mono<Boolean> deleteKey(String key) {
+        return reactiveRedisTemplate.delete(key).map(deleted -> deleted > 0);
+    }
+
+    /**
+     * Increment operation - routed to master
+     */
+    public Mono<Long> increment(String key) {
+        return reactiveRedisTemplate.opsForValue().increment(key);
+    }
+
+    /**
+     * Remaining time to live; empty when the key is missing, zero when it never expires
+     */
+    public Mono<Duration> getTtl(String key) {
+        return reactiveRedisTemplate.getExpire(key);
+    }
+}
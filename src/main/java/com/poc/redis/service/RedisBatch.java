@@ -0,0 +1,123 @@
+package com.poc.redis.service;
+
+import org.springframework.data.redis.core.RedisOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Commands queued for one round-trip through {@link RedisService#executeBatch} (pipelined) or
+ * {@link RedisService#executeAtomically} (MULTI/EXEC).
+ * Each command returns a {@link Result} handle that is filled in once the batch has run.
+ */
+public class RedisBatch {
+
+    private final List<Command<?>> commands = new ArrayList<>();
+
+    public Result<Object> get(String key) {
+        return add(operations -> operations.opsForValue().get(key), Function.identity());
+    }
+
+    public Result<Boolean> set(String key, Object value) {
+        return add(operations -> operations.opsForValue().set(key, value), RedisBatch::toBoolean);
+    }
+
+    public Result<Boolean> set(String key, Object value, Duration ttl) {
+        return add(operations -> operations.opsForValue().set(key, value, ttl), RedisBatch::toBoolean);
+    }
+
+    public Result<Boolean> delete(String key) {
+        return add(operations -> operations.delete(key), RedisBatch::toBoolean);
+    }
+
+    public Result<Long> increment(String key) {
+        return increment(key, 1);
+    }
+
+    public Result<Long> increment(String key, long delta) {
+        return add(operations -> operations.opsForValue().increment(key, delta), raw -> (Long) raw);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    void apply(RedisOperations<String, Object> operations) {
+        for (Command<?> command : commands) {
+            command.operation.accept(operations);
+        }
+    }
+
+    /**
+     * Hands the replies, in command order, to the result handles
+     */
+    void complete(List<Object> replies) {
+        if (replies == null || replies.size() != commands.size()) {
+            throw new IllegalStateException("Expected " + commands.size() + " replies, got "
+                    + (replies == null ? "none" : replies.size()));
+        }
+        for (int i = 0; i < commands.size(); i++) {
+            commands.get(i).complete(replies.get(i));
+        }
+    }
+
+    private <T> Result<T> add(Consumer<RedisOperations<String, Object>> operation, Function<Object, T> converter) {
+        Command<T> command = new Command<>(operation, converter);
+        commands.add(command);
+        return command.result;
+    }
+
+    // SET replies true, DEL replies the number of removed keys
+    private static Boolean toBoolean(Object raw) {
+        if (raw instanceof Number count) {
+            return count.longValue() > 0;
+        }
+        return Boolean.TRUE.equals(raw);
+    }
+
+    private static final class Command<T> {
+        private final Consumer<RedisOperations<String, Object>> operation;
+        private final Function<Object, T> converter;
+        private final Result<T> result = new Result<>();
+
+        private Command(Consumer<RedisOperations<String, Object>> operation, Function<Object, T> converter) {
+            this.operation = operation;
+            this.converter = converter;
+        }
+
+        private void complete(Object raw) {
+            result.complete(converter.apply(raw));
+        }
+    }
+
+    public static final class Result<T> {
+        private T value;
+        private boolean done;
+
+        private Result() {
+        }
+
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("Batch has not been executed yet");
+            }
+            return value;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        private void complete(T value) {
+            this.value = value;
+            this.done = true;
+        }
+    }
+}
@@ -1,45 +1,94 @@
 package com.poc.redis.service;
 
+import com.poc.redis.cache.LayeredCacheManager;
+import com.poc.redis.cluster.ClusterKeyOperations;
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.hotkey.HotKeyDetector;
+import com.poc.redis.metrics.LogSampler;
+import com.poc.redis.resilience.RedisCircuitBreaker;
 import io.lettuce.core.RedisConnectionException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 /**
  * Redis Service using single RedisTemplate
  * The single template automatically routes:
  * - Reads to replicas (when available) or master (as fallback)
  * - Writes to master
+ * While the Redis circuit is open the key/value and batch commands fail fast with
+ * RedisConnectionFailureException instead of waiting for a timeout.
  */
 @Service
 @Slf4j
 public class RedisService {
+
+    // Hot-path logging: one in 1024 calls at DEBUG, keys only - values are never formatted
+    private static final LogSampler SAMPLER = new LogSampler(log, 10);
+    private static final String HOT_KEY_SOURCE = "redis";
     
+    // Transaction-free: stays on the shared connection even when called inside @Transactional code
     @Autowired
+    @Qualifier("nonTransactionalRedisTemplate")
     private RedisTemplate<String, Object> redisTemplate;
     
     @Autowired
     private LettuceConnectionFactory redisConnectionFactory;
+
+    @Autowired
+    private ClusterKeyOperations clusterKeyOperations;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
     
     /**
      * Write operations - automatically routed to master
      */
     public void setValue(String key, Object value) {
-        log.info("Setting value: {} = {}", key, value);
-        redisTemplate.opsForValue().set(key, value);
-        log.info("Value set successfully to master");
+        guarded(() -> {
+            redisTemplate.opsForValue().set(key, value);
+            return null;
+        });
+        if (SAMPLER.sample()) {
+            log.debug("SET {}", key);
+        }
     }
 
     /**
      * Read operations - automatically prefer replica, fallback to master
      */
     public Object getValue(String key) {
-        log.info("Getting value for key: {}", key);
-        Object value = redisTemplate.opsForValue().get(key);
-        log.info("Retrieved value: {} = {}", key, value);
+        Object value = guarded(() -> redisTemplate.opsForValue().get(key));
+        if (hotKeyDetector.sample()) {
+            hotKeyDetector.record(HOT_KEY_SOURCE, key);
+        }
+        if (SAMPLER.sample()) {
+            log.debug("GET {} -> {}", key, value != null ? "hit" : "miss");
+        }
         return value;
     }
 
@@ -47,9 +96,10 @@ public class RedisService {
      * Delete operations - automatically routed to master
      */
     public Boolean deleteKey(String key) {
-        log.info("Deleting key: {}", key);
-        Boolean result = redisTemplate.delete(key);
-        log.info("Delete operation result for {}: {}", key, result);
+        Boolean result = guarded(() -> redisTemplate.delete(key));
+        if (SAMPLER.sample()) {
+            log.debug("DEL {} -> {}", key, result);
+        }
         return result;
     }
 
@@ -57,9 +107,10 @@ public class RedisService {
      * Check if key exists - can be read from replica
      */
     public Boolean hasKey(String key) {
-        log.info("Checking if key exists: {}", key);
-        Boolean exists = redisTemplate.hasKey(key);
-        log.info("Key {} exists: {}", key, exists);
+        Boolean exists = guarded(() -> redisTemplate.hasKey(key));
+        if (SAMPLER.sample()) {
+            log.debug("EXISTS {} -> {}", key, exists);
+        }
         return exists;
     }
 
@@ -67,21 +118,167 @@ public class RedisService {
      * Set with expiration - routed to master
      */
     public void setValueWithTTL(String key, Object value, long seconds) {
-        log.info("Setting value with TTL: {} = {} (expires in {} seconds)", key, value, seconds);
-        redisTemplate.opsForValue().set(key, value, java.time.Duration.ofSeconds(seconds));
-        log.info("Value with TTL set successfully");
+        guarded(() -> {
+            redisTemplate.opsForValue().set(key, value, java.time.Duration.ofSeconds(seconds));
+            return null;
+        });
+        if (SAMPLER.sample()) {
+            log.debug("SET {} EX {}", key, seconds);
+        }
     }
 
     /**
      * Increment operation - routed to master
      */
     public Long increment(String key) {
-        log.info("Incrementing key: {}", key);
-        Long result = redisTemplate.opsForValue().increment(key);
-        log.info("Increment result for {}: {}", key, result);
+        Long result = guarded(() -> redisTemplate.opsForValue().increment(key));
+        if (SAMPLER.sample()) {
+            log.debug("INCR {} -> {}", key, result);
+        }
+        return result;
+    }
+
+    public Long increment(String key, long delta) {
+        Long result = guarded(() -> redisTemplate.opsForValue().increment(key, delta));
+        if (SAMPLER.sample()) {
+            log.debug("INCRBY {} {} -> {}", key, delta, result);
+        }
         return result;
     }
 
+    /**
+     * Batch operations - every command in one pipeline (one round-trip), not atomic;
+     * results are available from the batch's Result handles afterwards
+     */
+    public void executeBatch(RedisBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object> replies = guarded(() -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                batch.apply((RedisOperations<String, Object>) operations);
+                return null;
+            }
+        }));
+        batch.complete(replies);
+        if (SAMPLER.sample()) {
+            log.debug("PIPELINE {} commands", batch.size());
+        }
+    }
+
+    /**
+     * Atomic batch - MULTI/EXEC on a dedicated connection, routed to master;
+     * use only when the commands must apply all together
+     */
+    public void executeAtomically(RedisBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object> replies = guarded(() -> redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) throws DataAccessException {
+                operations.multi();
+                batch.apply((RedisOperations<String, Object>) operations);
+                return operations.exec();
+            }
+        }));
+        batch.complete(replies);
+        if (SAMPLER.sample()) {
+            log.debug("MULTI/EXEC {} commands", batch.size());
+        }
+    }
+
+    /**
+     * Cursor-based key listing - SCAN never blocks the server the way KEYS does,
+     * and each key is handed to the consumer as soon as its page arrives; in cluster mode
+     * every master is scanned in turn
+     */
+    public void scanKeys(String pattern, int count, Consumer<String> consumer) {
+        if (clusterMode()) {
+            clusterKeyOperations.scan(pattern, count, consumer);
+            return;
+        }
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(consumer);
+        }
+    }
+
+    /**
+     * Namespace-scoped deletion - SCANs the pattern and removes keys with batched UNLINK,
+     * so memory is reclaimed in the background instead of inside the command;
+     * in cluster mode all masters are processed in parallel. Afterwards every instance drops its
+     * near-cache copies and hot-key pins, which could otherwise keep serving the unlinked entries
+     * until their TTL.
+     */
+    public long unlinkByPattern(String pattern, int batchSize) {
+        log.info("Unlinking keys matching: {}", pattern);
+        if (clusterMode()) {
+            long removed = clusterKeyOperations.unlinkByPattern(pattern, batchSize);
+            log.info("Unlinked {} keys matching: {} across the cluster", removed, pattern);
+            invalidateNearCaches();
+            return removed;
+        }
+        long removed = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(batchSize).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    removed += unlink(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            removed += unlink(batch);
+        }
+        log.info("Unlinked {} keys matching: {}", removed, pattern);
+        invalidateNearCaches();
+        return removed;
+    }
+
+    // Any pattern may cover cache keys, so all L1 copies and pinned hot keys go; they refill from Redis on the next reads
+    private void invalidateNearCaches() {
+        ApplicationProperties.Redis.NearCache nearCache = applicationProperties.getRedis().getNearCache();
+        boolean pinning = hotKeyDetector.isEnabled() && applicationProperties.getRedis().getHotKeys().isPromote();
+        if (!nearCache.isEnabled() && !pinning) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(nearCache.getInvalidationChannel(), LayeredCacheManager.clearAllMessage());
+        } catch (Exception e) {
+            log.warn("Failed to publish near-cache invalidation, L1 copies expire after {} and pins after {}: {}",
+                    nearCache.getTtl(), applicationProperties.getRedis().getHotKeys().getPinTtl(), e.getMessage());
+        }
+    }
+
+    // Fails fast while the circuit is open; outcomes feed the breaker, errors are still rethrown
+    private <T> T guarded(Supplier<T> command) {
+        circuitBreaker.checkAvailable();
+        try {
+            T result = command.get();
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure(e);
+            throw e;
+        }
+    }
+
+    private boolean clusterMode() {
+        return applicationProperties.getRedis().getCluster().isEnabled();
+    }
+
+    private long unlink(List<String> keys) {
+        Long unlinked = redisTemplate.unlink(keys);
+        return unlinked != null ? unlinked : 0;
+    }
+
     /**
      * Health check for Redis connection
      */
@@ -89,10 +286,11 @@ public class RedisService {
         try {
             // Simple ping test
             redisTemplate.opsForValue().get("health-check");
-            log.info("Redis health check passed");
+            log.debug("Redis health check passed");
             return Health.up()
                     .withDetail("status", "Connected")
                     .withDetail("connectionFactory", redisConnectionFactory.getClass().getSimpleName())
+                    .withDetail("circuit", circuitBreaker.isOpen() ? "open" : "closed")
                     .build();
         } catch (RedisConnectionException e) {
             log.error("Redis health check failed: {}", e.getMessage());
@@ -0,0 +1,247 @@
+package com.poc.redis.service;
+
+import com.poc.redis.cache.CacheTtlPolicy;
+import com.poc.redis.cache.RedisHashStore;
+import com.poc.redis.cluster.ClusterKeyOperations;
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.model.User;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import com.poc.redis.serializer.UserHashMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk access to the per-ID entries of the users cache.
+ * Keys and value encoding come from the same {@link RedisCacheConfiguration} the cache manager
+ * uses and TTLs (with jitter) from the same {@link CacheTtlPolicy}, so entries written here are
+ * indistinguishable from {@code @CachePut} entries. When users is a hash cache the entries are
+ * hashes, read and written through the same {@link RedisHashStore} as the cache.
+ */
+@Component
+@Slf4j
+public class UserCacheSupport {
+
+    public static final String CACHE_NAME = "users";
+    // Rendered JSON response bodies (raw bytes) for the user read endpoints
+    public static final String RESPONSE_CACHE_NAME = "users-http";
+    // ID lists of full keyset pages (GET /users/page), keyed by cursor and size
+    public static final String PAGE_CACHE_NAME = "users-pages";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisCacheConfiguration redisCacheConfiguration;
+
+    @Autowired
+    private CacheTtlPolicy cacheTtlPolicy;
+
+    @Autowired
+    private ClusterKeyOperations clusterKeyOperations;
+
+    @Autowired
+    private RedisHashStore<User> userHashStore;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    /**
+     * Reads the cached users for all IDs with a single MGET (one MGET per slot in cluster mode);
+     * IDs that are not cached (or cannot be decoded) are simply absent from the result
+     */
+    public Map<Long, User> getAll(List<Long> ids) {
+        Map<Long, User> found = new HashMap<>();
+        if (ids.isEmpty() || !circuitBreaker.allowRequest()) {
+            return found;
+        }
+        if (hashBacked()) {
+            return getAllHashes(ids);
+        }
+        byte[][] keys = new byte[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            keys[i] = key(ids.get(i));
+        }
+        List<byte[]> values;
+        try {
+            values = clusterMode()
+                    ? clusterKeyOperations.mGet(keys)
+                    : stringRedisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                            connection.stringCommands().mGet(keys));
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.warn("Cache MGET failed for {} users, loading from database: {}", ids.size(), e.getMessage());
+            return found;
+        }
+        if (values == null) {
+            return found;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            User user = decode(values.get(i));
+            if (user != null) {
+                found.put(ids.get(i), user);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes every user's cache entry in a single pipelined round-trip (per node in cluster mode);
+     * false when nothing was written because the circuit is open or Redis failed
+     */
+    public boolean putAll(Collection<User> users) {
+        return write(users, false);
+    }
+
+    /**
+     * Like putAll, but users that are already cached keep their entry (SET NX). For rows read from
+     * the database: a write that committed after the read has put a newer entry, which must win.
+     */
+    public boolean putAllIfAbsent(Collection<User> users) {
+        return write(users, true);
+    }
+
+    private boolean write(Collection<User> users, boolean ifAbsent) {
+        if (users.isEmpty()) {
+            return true;
+        }
+        // Skipped while the circuit is open; these are new or freshly loaded entries, nothing goes stale
+        if (!circuitBreaker.allowRequest()) {
+            return false;
+        }
+        try {
+            if (hashBacked()) {
+                Map<String, User> entries = new LinkedHashMap<>();
+                users.forEach(user -> entries.put(stringKey(user.getId()), user));
+                if (ifAbsent) {
+                    userHashStore.putAllIfAbsent(entries, this::ttl);
+                } else {
+                    userHashStore.putAll(entries, this::ttl);
+                }
+                return true;
+            }
+            if (clusterMode()) {
+                clusterKeyOperations.setAll(users.stream()
+                        .map(user -> new ClusterKeyOperations.Entry(key(user.getId()), value(user), ttl(user)))
+                        .toList(), ifAbsent);
+                return true;
+            }
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (User user : users) {
+                    connection.stringCommands().set(key(user.getId()), value(user),
+                            expiration(user), ifAbsent ? RedisStringCommands.SetOption.ifAbsent()
+                                    : RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+            return true;
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            // Entries are simply loaded on first read instead
+            log.warn("Failed to populate cache for {} users: {}", users.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * HMGET of the given fields when users is a hash cache; null when the user is not cached
+     * or the cache stores whole serialized values, in which case the caller reads the user
+     */
+    public Map<String, String> getFields(Long id, List<String> fields) {
+        if (!hashBacked() || !circuitBreaker.allowRequest()) {
+            return null;
+        }
+        List<String> requested = new ArrayList<>(fields.size() + 1);
+        // The id field tells a missing entry apart from a user without the requested fields
+        requested.add(UserHashMapper.ID);
+        requested.addAll(fields);
+        List<String> values;
+        try {
+            values = userHashStore.getFields(stringKey(id), requested);
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.debug("Cache HMGET failed for user {}: {}", id, e.getMessage());
+            return null;
+        }
+        if (values == null || values.get(0) == null) {
+            return null;
+        }
+        Map<String, String> projection = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            projection.put(fields.get(i), values.get(i + 1));
+        }
+        return projection;
+    }
+
+    public boolean hashBacked() {
+        return applicationProperties.getRedis().getSerializer().getHashCaches().contains(CACHE_NAME);
+    }
+
+    private Map<Long, User> getAllHashes(List<Long> ids) {
+        Map<Long, User> found = new HashMap<>();
+        try {
+            Map<String, User> cached = userHashStore.getAll(ids.stream().map(this::stringKey).toList());
+            cached.values().forEach(user -> found.put(user.getId(), user));
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.warn("Cache HGETALL failed for {} users, loading from database: {}", ids.size(), e.getMessage());
+        }
+        return found;
+    }
+
+    byte[] key(Long id) {
+        return ByteUtils.getBytes(redisCacheConfiguration.getKeySerializationPair().write(stringKey(id)));
+    }
+
+    private String stringKey(Long id) {
+        return redisCacheConfiguration.getKeyPrefixFor(CACHE_NAME) + id;
+    }
+
+    byte[] value(User user) {
+        return ByteUtils.getBytes(redisCacheConfiguration.getValueSerializationPair().write(user));
+    }
+
+    User decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            Object value = redisCacheConfiguration.getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+            return value instanceof User user ? user : null;
+        } catch (Exception e) {
+            log.debug("Ignoring undecodable users cache entry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Expiration expiration(User user) {
+        Duration ttl = ttl(user);
+        return ttl == null || ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+    }
+
+    private Duration ttl(User user) {
+        return cacheTtlPolicy.timeToLive(CACHE_NAME, user.getId());
+    }
+
+    private boolean clusterMode() {
+        return applicationProperties.getRedis().getCluster().isEnabled();
+    }
+}
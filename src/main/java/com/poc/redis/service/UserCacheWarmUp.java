@@ -0,0 +1,216 @@
+package com.poc.redis.service;
+
+import com.poc.redis.cache.HotKeySnapshot;
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.dao.UserRepository;
+import com.poc.redis.model.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preloads the users cache on startup and remembers what was hot on shutdown.
+ * <ul>
+ *   <li>Runs as an ApplicationRunner, so the readiness probe stays OUT_OF_SERVICE until it is done
+ *       (or maxDuration has passed).</li>
+ *   <li>With a snapshot from the last shutdown, exactly those IDs are loaded; without one, the first
+ *       maxUsers users by ID are read with keyset paging.</li>
+ *   <li>Each page is written to Redis in one pipelined batch, paced to rateLimit entries per second
+ *       so MySQL and Redis keep serving the instances that are already up.</li>
+ *   <li>On shutdown the numeric keys currently in the users cache are written to the snapshot.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class UserCacheWarmUp implements ApplicationRunner {
+
+    private static final int SCAN_COUNT = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserCacheSupport userCacheSupport;
+    @Autowired
+    private RedisService redisService;
+    @Autowired
+    private RedisCacheConfiguration redisCacheConfiguration;
+    @Autowired
+    private ApplicationProperties applicationProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong target = new AtomicLong();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties().isEnabled()) {
+            return;
+        }
+        Gauge.builder("cache.warmup.loaded", loaded, AtomicLong::get)
+                .description("Users written to the cache by the startup warm-up")
+                .tag("cache", UserCacheSupport.CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.target", target, AtomicLong::get)
+                .description("Users the startup warm-up intends to load")
+                .tag("cache", UserCacheSupport.CACHE_NAME)
+                .register(meterRegistry);
+
+        long start = System.nanoTime();
+        long deadline = start + properties().getMaxDuration().toNanos();
+        String source = "keyset";
+        try {
+            long[] snapshot = readSnapshot();
+            if (snapshot != null && snapshot.length > 0) {
+                source = "snapshot";
+                warmFromSnapshot(snapshot, start, deadline);
+            } else {
+                warmByKeyset(start, deadline);
+            }
+        } catch (Exception e) {
+            // A cold cache is slower, not broken; never block startup on it
+            log.warn("Cache warm-up stopped after {} users: {}", loaded.get(), e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            meterRegistry.timer("cache.warmup.duration", "cache", UserCacheSupport.CACHE_NAME, "source", source)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Cache warm-up ({}) loaded {} of {} users in {} ms", source, loaded.get(), target.get(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    /**
+     * Runs before the connection factory is stopped, unlike @PreDestroy
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void saveSnapshot() {
+        if (!properties().isEnabled()) {
+            return;
+        }
+        String prefix = redisCacheConfiguration.getKeyPrefixFor(UserCacheSupport.CACHE_NAME);
+        int max = properties().getMaxUsers();
+        long[][] ids = {new long[Math.min(max, 4096)]};
+        int[] count = {0};
+        try {
+            redisService.scanKeys(prefix + "*", SCAN_COUNT, key -> {
+                Long id = count[0] < max ? parseId(key.substring(prefix.length())) : null;
+                if (id != null) {
+                    if (count[0] == ids[0].length) {
+                        ids[0] = Arrays.copyOf(ids[0], Math.min(max, ids[0].length * 2));
+                    }
+                    ids[0][count[0]++] = id;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Could not collect hot user IDs for the snapshot: {}", e.getMessage());
+            return;
+        }
+        writeSnapshot(Arrays.copyOf(ids[0], count[0]));
+    }
+
+    private void writeSnapshot(long[] ids) {
+        Path path = Path.of(properties().getSnapshotPath());
+        try {
+            HotKeySnapshot.write(path, ids);
+            log.info("Saved {} hot user IDs to {}", ids.length, path.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Could not write hot-key snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void warmFromSnapshot(long[] ids, long start, long deadline) throws InterruptedException {
+        int total = Math.min(ids.length, properties().getMaxUsers());
+        target.set(total);
+        int pageSize = properties().getPageSize();
+        for (int from = 0; from < total && !expired(deadline); from += pageSize) {
+            List<Long> page = Arrays.stream(ids, from, Math.min(from + pageSize, total)).boxed().toList();
+            write(userRepository.findAllById(page), start);
+        }
+    }
+
+    private void warmByKeyset(long start, long deadline) throws InterruptedException {
+        int max = properties().getMaxUsers();
+        target.set(Math.min(max, userRepository.count()));
+        long afterId = 0;
+        while (loaded.get() < max && !expired(deadline)) {
+            int limit = (int) Math.min(properties().getPageSize(), max - loaded.get());
+            List<User> page = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+            if (page.isEmpty()) {
+                break;
+            }
+            write(page, start);
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private void write(List<User> users, long start) throws InterruptedException {
+        // Only entries that actually reached Redis count as loaded; a failing Redis ends the warm-up
+        if (!userCacheSupport.putAll(users)) {
+            throw new IllegalStateException("cache writes are being skipped or failing");
+        }
+        long written = loaded.addAndGet(users.size());
+        int rateLimit = properties().getRateLimit();
+        if (rateLimit > 0) {
+            long dueNanos = written * 1_000_000_000L / rateLimit;
+            long aheadNanos = dueNanos - (System.nanoTime() - start);
+            if (aheadNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            }
+        }
+    }
+
+    private long[] readSnapshot() {
+        Path path = Path.of(properties().getSnapshotPath());
+        if (!Files.exists(path)) {
+            log.info("No hot-key snapshot at {}, warming by ID order", path.toAbsolutePath());
+            return null;
+        }
+        try {
+            return HotKeySnapshot.read(path, properties().getMaxUsers());
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable hot-key snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean expired(long deadline) {
+        if (System.nanoTime() - deadline >= 0) {
+            log.warn("Cache warm-up reached its max duration, continuing startup");
+            return true;
+        }
+        return false;
+    }
+
+    // Numeric suffixes are per-ID entries; 'all-users' and other keys are skipped
+    private static Long parseId(String suffix) {
+        if (suffix.isEmpty() || suffix.length() > 18) {
+            return null;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (!Character.isDigit(suffix.charAt(i))) {
+                return null;
+            }
+        }
+        return Long.parseLong(suffix);
+    }
+
+    private ApplicationProperties.Redis.WarmUp properties() {
+        return applicationProperties.getRedis().getWarmUp();
+    }
+}
@@ -0,0 +1,391 @@
+package com.poc.redis.service;
+
+import com.poc.redis.cache.BloomFilter;
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.dao.UserRepository;
+import com.poc.redis.model.User;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.BitFieldSubCommands.BitFieldType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers "this user ID does not exist" without touching MySQL.
+ * <ul>
+ *   <li>A Bloom filter over all user IDs lives in a Redis bitmap shared by every instance; it is
+ *       rebuilt from the primary key every rebuildInterval (one instance per interval) and IDs are
+ *       added as users are created. Deleted IDs stay in it until the next rebuild.</li>
+ *   <li>The bitmap header records the filter's size and hash count; instances configured
+ *       differently (e.g. mid-rollout) treat it as not built until it is rebuilt with theirs.</li>
+ *   <li>Optionally, IDs that MySQL reported missing are remembered for negativeTtl, which covers
+ *       deleted IDs and the filter's false positives. Creating a user clears its entry and leaves a
+ *       created marker for negativeTtl, so a lookup that read the database before the insert
+ *       committed cannot store a negative entry for it afterwards.</li>
+ * </ul>
+ * Any doubt (filter not built yet, Redis unavailable) answers "might exist" and the database decides.
+ * IDs that could not be added (Redis down) are retried every second; past 100,000 of them the
+ * filter is rebuilt instead.
+ */
+@Component
+@Slf4j
+public class UserIdFilter {
+
+    // One hash slot for the filter and its rebuild keys, so the scripts also run in cluster mode
+    private static final String FILTER_KEY = "app-bloom:{users}";
+    private static final String BUILDING_KEY = FILTER_KEY + ":building";
+    private static final String SNAPSHOT_KEY = FILTER_KEY + ":snapshot";
+    private static final String LOCK_KEY = FILTER_KEY + ":rebuild-lock";
+    private static final String NEGATIVE_PREFIX = "app-negative:{users}::";
+    private static final String CREATED_PREFIX = "app-created:{users}::";
+    private static final Duration BUILD_TTL = Duration.ofMinutes(10);
+    private static final int IDS_PER_CALL = 1000;
+    private static final int MAX_UNSYNCED = 100_000;
+
+    // Sets the bits in the filter and, while a rebuild is running, in the filter being built
+    private static final RedisScript<Long> ADD = new DefaultRedisScript<>("""
+            for i = 1, #KEYS do
+              if i == 1 or redis.call('EXISTS', KEYS[i]) == 1 then
+                for j = 1, #ARGV do
+                  redis.call('SETBIT', KEYS[i], ARGV[j], 1)
+                end
+              end
+            end
+            return #ARGV
+            """, Long.class);
+
+    // Merges the database snapshot with IDs added during the rebuild and swaps it in
+    private static final RedisScript<Long> PUBLISH = new DefaultRedisScript<>("""
+            redis.call('BITOP', 'OR', KEYS[1], KEYS[1], KEYS[2])
+            redis.call('DEL', KEYS[2])
+            redis.call('RENAME', KEYS[1], KEYS[3])
+            redis.call('PERSIST', KEYS[3])
+            return redis.call('STRLEN', KEYS[3])
+            """, Long.class);
+
+    // KEYS[1] = negative entry, KEYS[2] = created marker; ARGV[1] = TTL in ms, ARGV[2] = 1 for a delete
+    private static final RedisScript<Long> RECORD_MISSING = new DefaultRedisScript<>("""
+            if ARGV[2] == '1' then
+              redis.call('DEL', KEYS[2])
+            elseif redis.call('EXISTS', KEYS[2]) == 1 then
+              return 0
+            end
+            redis.call('SET', KEYS[1], '1', 'PX', ARGV[1])
+            return 1
+            """, Long.class);
+
+    // KEYS = negative entry / created marker pairs; ARGV[1] = marker TTL in ms
+    private static final RedisScript<Long> MARK_CREATED = new DefaultRedisScript<>("""
+            for i = 1, #KEYS, 2 do
+              redis.call('UNLINK', KEYS[i])
+              redis.call('SET', KEYS[i + 1], '1', 'PX', ARGV[1])
+            end
+            return #KEYS / 2
+            """, Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile BloomFilter filter;
+    private final Set<Long> unsynced = ConcurrentHashMap.newKeySet();
+    private volatile boolean overflowed;
+    private ScheduledExecutorService rebuilder;
+
+    /**
+     * False only when the user is known not to exist
+     */
+    public boolean mightExist(Long id) {
+        if (id == null || !circuitBreaker.allowRequest()) {
+            return true;
+        }
+        try {
+            if (properties().isEnabled() && !filterMightContain(id)) {
+                meterRegistry.counter("users.idfilter.checks", "result", "absent").increment();
+                return false;
+            }
+            if (negativeEnabled() && Boolean.TRUE.equals(stringRedisTemplate.hasKey(NEGATIVE_PREFIX + id))) {
+                meterRegistry.counter("users.idfilter.checks", "result", "negative").increment();
+                return false;
+            }
+            circuitBreaker.recordSuccess();
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.debug("User ID filter check failed for {}: {}", id, e.getMessage());
+        }
+        meterRegistry.counter("users.idfilter.checks", "result", "maybe").increment();
+        return true;
+    }
+
+    /**
+     * The database has no user with this ID; ignored when the user was created since the lookup
+     */
+    public void recordMissing(Long id) {
+        recordMissing(id, false);
+    }
+
+    /**
+     * The user was deleted; the filter keeps the ID until the next rebuild
+     */
+    public void remove(Long id) {
+        recordMissing(id, true);
+    }
+
+    private void recordMissing(Long id, boolean deleted) {
+        if (id == null || !negativeEnabled() || !circuitBreaker.allowRequest()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RECORD_MISSING, List.of(NEGATIVE_PREFIX + id, CREATED_PREFIX + id),
+                    Long.toString(properties().getNegativeTtl().toMillis()), deleted ? "1" : "0");
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.debug("Failed to record missing user {}: {}", id, e.getMessage());
+        }
+    }
+
+    public void add(Long id) {
+        if (id != null) {
+            addAll(List.of(id));
+        }
+    }
+
+    public void addUsers(Collection<User> users) {
+        addAll(users.stream().map(User::getId).filter(id -> id != null).toList());
+    }
+
+    /**
+     * Rebuilds the filter from the database unless another instance did so within rebuildInterval
+     */
+    public void rebuild() {
+        Duration interval = properties().getRebuildInterval();
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, "1", interval))) {
+            log.debug("User ID filter rebuilt recently by another instance, skipping");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            // From here on, IDs added by any instance also land in the filter being built
+            stringRedisTemplate.opsForValue().set(BUILDING_KEY, "", BUILD_TTL);
+            long[] ids = new long[1024];
+            int count = 0;
+            long after = 0;
+            int pageSize = properties().getPageSize();
+            while (true) {
+                List<Long> page = userRepository.findIdsAfter(after, PageRequest.of(0, pageSize));
+                for (Long id : page) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, ids.length * 2);
+                    }
+                    ids[count++] = id;
+                }
+                if (page.size() < pageSize) {
+                    break;
+                }
+                after = page.get(page.size() - 1);
+            }
+            byte[] bitmap = filter().bitmap(ids, count);
+            byte[] snapshotKey = SNAPSHOT_KEY.getBytes(StandardCharsets.UTF_8);
+            stringRedisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.stringCommands().set(snapshotKey, bitmap));
+            stringRedisTemplate.execute(PUBLISH, List.of(BUILDING_KEY, SNAPSHOT_KEY, FILTER_KEY));
+
+            long elapsed = System.nanoTime() - start;
+            meterRegistry.timer("users.idfilter.rebuild").record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("User ID filter rebuilt with {} IDs in {} ms ({} KB, {} hashes)", count,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), bitmap.length / 1024, filter().getHashes());
+            if (count > properties().getExpectedInsertions()) {
+                log.warn("{} user IDs exceed id-filter.expected-insertions ({}), false positives will rise",
+                        count, properties().getExpectedInsertions());
+            }
+        } catch (Exception e) {
+            // Let the next attempt (any instance) try again
+            try {
+                stringRedisTemplate.delete(List.of(LOCK_KEY, BUILDING_KEY, SNAPSHOT_KEY));
+            } catch (Exception cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties().isEnabled() && !negativeEnabled()) {
+            return;
+        }
+        rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-id-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuilder.scheduleWithFixedDelay(this::repair, 1, 1, TimeUnit.SECONDS);
+        if (!properties().isEnabled()) {
+            return;
+        }
+        long intervalMillis = properties().getRebuildInterval().toMillis();
+        rebuilder.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("User ID filter rebuild failed: {}", e.getMessage());
+            }
+        }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("User ID filter enabled - {} bits, {} hashes, rebuild every {}", filter().getBits(),
+                filter().getHashes(), properties().getRebuildInterval());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    private boolean filterMightContain(long id) {
+        BitFieldSubCommands commands = BitFieldSubCommands.create()
+                .get(BitFieldType.unsigned(1)).valueAt(BloomFilter.MARKER_OFFSET)
+                .get(BitFieldType.unsigned(32)).valueAt(BloomFilter.BITS_OFFSET)
+                .get(BitFieldType.unsigned(8)).valueAt(BloomFilter.HASHES_OFFSET);
+        for (long offset : filter().offsets(id)) {
+            commands = commands.get(BitFieldType.unsigned(1)).valueAt(offset);
+        }
+        List<Long> bits = stringRedisTemplate.opsForValue().bitField(FILTER_KEY, commands);
+        if (bits == null || bits.size() < 3 || bits.get(0) != 1) {
+            // Not built yet, or the bitmap was lost
+            return true;
+        }
+        if (!filter().matches(bits.get(1), bits.get(2))) {
+            // Built with other settings; its bits say nothing about our offsets
+            meterRegistry.counter("users.idfilter.checks", "result", "geometry-mismatch").increment();
+            return true;
+        }
+        return !bits.subList(3, bits.size()).contains(0L);
+    }
+
+    /**
+     * Sends the adds that did not reach Redis; once too many were missed, rebuilds instead
+     */
+    void repair() {
+        if ((unsynced.isEmpty() && !overflowed) || circuitBreaker.isOpen()) {
+            return;
+        }
+        if (overflowed) {
+            overflowed = false;
+            unsynced.clear();
+            try {
+                stringRedisTemplate.delete(LOCK_KEY);
+                if (properties().isEnabled()) {
+                    rebuild();
+                }
+            } catch (Exception e) {
+                overflowed = true;
+                log.warn("User ID filter rebuild after missed adds failed: {}", e.getMessage());
+            }
+            return;
+        }
+        List<Long> ids = new ArrayList<>(unsynced);
+        if (send(ids)) {
+            ids.forEach(unsynced::remove);
+            log.info("Added {} user IDs to the ID filter after Redis recovered", ids.size());
+        }
+    }
+
+    private void addAll(List<Long> ids) {
+        if (ids.isEmpty() || (!properties().isEnabled() && !negativeEnabled())) {
+            return;
+        }
+        // Until it is sent, the ID could be reported missing by the filter or a negative entry
+        if (!circuitBreaker.allowRequest() || !send(ids)) {
+            if (unsynced.size() + ids.size() > MAX_UNSYNCED) {
+                overflowed = true;
+                unsynced.clear();
+            } else {
+                unsynced.addAll(ids);
+            }
+        }
+    }
+
+    private boolean send(List<Long> ids) {
+        boolean filterEnabled = properties().isEnabled();
+        try {
+            for (int from = 0; from < ids.size(); from += IDS_PER_CALL) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IDS_PER_CALL));
+                if (filterEnabled) {
+                    List<String> offsets = new ArrayList<>(chunk.size() * filter().getHashes());
+                    for (Long id : chunk) {
+                        for (long offset : filter().offsets(id)) {
+                            offsets.add(Long.toString(offset));
+                        }
+                    }
+                    stringRedisTemplate.execute(ADD, List.of(FILTER_KEY, BUILDING_KEY), offsets.toArray());
+                }
+                if (negativeEnabled()) {
+                    List<String> keys = new ArrayList<>(chunk.size() * 2);
+                    for (Long id : chunk) {
+                        keys.add(NEGATIVE_PREFIX + id);
+                        keys.add(CREATED_PREFIX + id);
+                    }
+                    stringRedisTemplate.execute(MARK_CREATED, keys, Long.toString(properties().getNegativeTtl().toMillis()));
+                }
+            }
+            circuitBreaker.recordSuccess();
+            return true;
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.warn("Failed to add {} user IDs to the ID filter: {}", ids.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private BloomFilter filter() {
+        BloomFilter current = filter;
+        if (current == null) {
+            current = new BloomFilter(properties().getExpectedInsertions(), properties().getFalsePositiveRate());
+            filter = current;
+        }
+        return current;
+    }
+
+    private boolean negativeEnabled() {
+        Duration ttl = properties().getNegativeTtl();
+        return ttl != null && !ttl.isZero() && !ttl.isNegative();
+    }
+
+    private ApplicationProperties.Redis.IdFilter properties() {
+        return applicationProperties.getRedis().getIdFilter();
+    }
+}
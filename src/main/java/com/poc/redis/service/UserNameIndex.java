@@ -0,0 +1,153 @@
+package com.poc.redis.service;
+
+import com.poc.redis.dao.UserRepository;
+import com.poc.redis.model.User;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Redis-side secondary index: normalized user name -> set of user IDs.
+ * Creates and renames add IDs as they happen, but a set only answers lookups once it holds the
+ * complete marker, written by {@link #backfill} together with every ID the database has for the
+ * name; until then older users under the same name could be missing from it.
+ * Index failures are logged and never fail the database write; lookups fall back to the
+ * indexed name_lower column and repair the entry. While the Redis circuit is open the index is
+ * skipped altogether.
+ */
+@Component
+@Slf4j
+public class UserNameIndex {
+
+    static final String KEY_PREFIX = "app-index:user-name::";
+    static final String COMPLETE_MARKER = "*";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    /**
+     * Lowest user ID indexed under the name, or null when the name has not been backfilled
+     */
+    public Long lookup(String name) {
+        if (!circuitBreaker.allowRequest()) {
+            return null;
+        }
+        try {
+            Set<String> ids = stringRedisTemplate.opsForSet().members(key(name));
+            if (ids == null || !ids.contains(COMPLETE_MARKER)) {
+                return null;
+            }
+            return ids.stream().filter(id -> !COMPLETE_MARKER.equals(id))
+                    .map(Long::valueOf).min(Long::compare).orElse(null);
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.warn("Name index lookup failed for '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    public void add(User user) {
+        if (user == null || user.getId() == null || user.getName() == null || !circuitBreaker.allowRequest()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForSet().add(key(user.getName()), user.getId().toString());
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.warn("Failed to index user {} by name: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Stores every ID the database has for the name and marks the entry complete (one SADD)
+     */
+    public void backfill(String name, List<Long> ids) {
+        if (name == null || ids.isEmpty() || !circuitBreaker.allowRequest()) {
+            return;
+        }
+        String[] members = new String[ids.size() + 1];
+        members[0] = COMPLETE_MARKER;
+        for (int i = 0; i < ids.size(); i++) {
+            members[i + 1] = ids.get(i).toString();
+        }
+        try {
+            stringRedisTemplate.opsForSet().add(key(name), members);
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.warn("Failed to backfill name index for '{}': {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Indexes all users in one pipelined round-trip
+     */
+    public void addAll(Collection<User> users) {
+        if (!circuitBreaker.allowRequest()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (User user : users) {
+                    if (user.getId() != null && user.getName() != null) {
+                        stringConnection.sAdd(key(user.getName()), user.getId().toString());
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.warn("Failed to index {} users by name: {}", users.size(), e.getMessage());
+        }
+    }
+
+    public void remove(String name, Long id) {
+        if (name == null || id == null || !circuitBreaker.allowRequest()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForSet().remove(key(name), id.toString());
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.warn("Failed to remove user {} from name index: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the user's index entry when the name changed
+     */
+    public void rename(Long id, String previousName, User user) {
+        if (previousName != null && !previousName.equalsIgnoreCase(user.getName())) {
+            remove(previousName, id);
+        }
+        add(user);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillNameColumn() {
+        int updated = userRepository.backfillNameLower();
+        if (updated > 0) {
+            log.info("Backfilled name_lower for {} users", updated);
+        }
+    }
+
+    static String key(String name) {
+        return KEY_PREFIX + User.normalizeName(name);
+    }
+}
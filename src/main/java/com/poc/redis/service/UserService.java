@@ -1,75 +1,382 @@
 package com.poc.redis.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.redis.config.ApplicationProperties;
 import com.poc.redis.dao.UserRepository;
 import com.poc.redis.model.User;
+import com.poc.redis.model.UserPage;
+import com.poc.redis.serializer.UserHashMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 public class UserService {
     private final String CACHE_NAME = "users";
+    private static final String RESPONSE_CACHE_NAME = UserCacheSupport.RESPONSE_CACHE_NAME;
+    private static final String PAGE_CACHE_NAME = UserCacheSupport.PAGE_CACHE_NAME;
+    private static final UserHashMapper USER_HASH_MAPPER = new UserHashMapper();
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private UserNameIndex userNameIndex;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private UserCacheSupport userCacheSupport;
+    @Autowired
+    private ApplicationProperties applicationProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserWriteBehind userWriteBehind;
+    @Autowired
+    private UserIdFilter userIdFilter;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserVersions userVersions;
+    @Autowired
+    private CachingConfigurer cachingConfigurer;
 
-    @Cacheable(cacheNames = CACHE_NAME, key = "'all-users'")
+    @Cacheable(cacheNames = CACHE_NAME, key = "'all-users'", sync = true)
     public List<User> getAllUsers() {
         log.info("Fetching all users from database");
         return userRepository.findAll();
     }
 
-    @Cacheable(cacheNames = CACHE_NAME, key = "'name:' + #name.toLowerCase()")
+    /**
+     * GET /users response body, cached as JSON bytes; a miss renders the users cache's all-users list
+     */
+    @Cacheable(cacheNames = RESPONSE_CACHE_NAME, key = "'all-users'", sync = true)
+    public byte[] getAllUsersJson() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        List<User> users = cache != null ? cache.get("all-users", userRepository::findAll) : userRepository.findAll();
+        return toJson(users);
+    }
+
+    /**
+     * GET /users/{id} response body, cached as JSON bytes; null (and not cached) when the user does not exist.
+     * A write can replace the user between rendering and storing the body, after its own eviction ran,
+     * so a freshly stored body is checked against the user's entry in Redis and evicted if they differ.
+     */
+    public byte[] getUserJson(Long id) {
+        Cache cache = cacheManager.getCache(RESPONSE_CACHE_NAME);
+        if (cache == null) {
+            User user = findCachedOrLoad(id);
+            return user != null ? toJson(user) : null;
+        }
+        User[] rendered = new User[1];
+        byte[] body = cache.get(id, () -> {
+            rendered[0] = findCachedOrLoad(id);
+            return rendered[0] != null ? toJson(rendered[0]) : null;
+        });
+        // Read past the near cache: a write on another instance may not have reached its L1 yet
+        if (rendered[0] != null && !rendered[0].equals(userCacheSupport.getAll(List.of(id)).get(id))) {
+            log.debug("User {} changed while its response body was cached, evicting it", id);
+            cache.evict(id);
+        }
+        return body;
+    }
+
+    /**
+     * Keyset page of users with IDs after the cursor. Only the page's ID list is cached; the users
+     * come from their per-ID entries, which writes keep current, so no write evicts a page.
+     * <ul>
+     *   <li>New users mostly land on the last (short) page, which is never cached. IDENTITY values are
+     *       handed out before commit, though, so a user committed late can fall inside a cached full
+     *       page and stays missing from it until the page's TTL expires.</li>
+     *   <li>Deleted users are skipped when the page is read.</li>
+     *   <li>Rows read here only fill in missing per-ID entries (SET NX): a write that committed after
+     *       the query has already put a newer entry.</li>
+     * </ul>
+     */
+    public UserPage getUsersPage(long after, int size) {
+        Cache cache = cacheManager.getCache(PAGE_CACHE_NAME);
+        String key = after + ":" + size;
+        List<?> cachedIds = cache != null ? cache.get(key, List.class) : null;
+        if (cachedIds != null) {
+            // JSON-encoded lists may come back with Integer elements
+            List<Long> ids = cachedIds.stream().map(id -> ((Number) id).longValue()).toList();
+            return new UserPage(getUsersByIds(ids), ids.get(ids.size() - 1));
+        }
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size));
+        userCacheSupport.putAllIfAbsent(users);
+        if (users.size() < size) {
+            return new UserPage(users, null);
+        }
+        List<Long> ids = users.stream().map(User::getId).toList();
+        if (cache != null) {
+            cache.put(key, ids);
+        }
+        return new UserPage(users, ids.get(ids.size() - 1));
+    }
+
+    /**
+     * Walks the whole table in keyset chunks straight from the database, bypassing the caches;
+     * only one chunk is held in memory at a time
+     */
+    public void exportUsers(int chunkSize, Consumer<List<User>> chunkConsumer) {
+        long after = 0;
+        List<User> chunk;
+        do {
+            chunk = userRepository.findDetachedAfter(after, PageRequest.of(0, chunkSize));
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+                after = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == chunkSize);
+    }
+
+    /**
+     * Name lookups resolve through the Redis name index to an ID and then read the per-ID
+     * cache entry, so renames never leave a stale name-keyed copy behind. The first lookup of a
+     * name loads all its IDs from the database into the index, so the lowest indexed ID is the
+     * same user the database query returns.
+     */
     public User getUsersByName(String name) {
-        log.info("Fetching user by name: {}", name);
-        List<User> users = userRepository.findAll();
-        Optional<User> user = users.stream().filter(u -> u.getName().equalsIgnoreCase(name)).findFirst();
-        return user.orElse(null);
+        Long indexedId = userNameIndex.lookup(name);
+        if (indexedId != null) {
+            User user = findCachedOrLoad(indexedId);
+            if (user != null && name.equalsIgnoreCase(user.getName())) {
+                return user;
+            }
+            userNameIndex.remove(name, indexedId);
+        }
+        List<Long> ids = userRepository.findIdsByNameLower(User.normalizeName(name));
+        userNameIndex.backfill(name, ids);
+        return ids.isEmpty() ? null : findCachedOrLoad(ids.get(0));
     }
 
-    @Cacheable(cacheNames = CACHE_NAME, key = "#id")
+    /**
+     * On a cache miss, IDs the ID filter knows to be absent are answered without a query
+     */
+    @Cacheable(cacheNames = CACHE_NAME, key = "#id", sync = true)
     public Optional<User> getUserById(Long id) {
-        return userRepository.findById(id);
+        return Optional.ofNullable(loadIfExists(id));
     }
 
-    @CacheEvict(cacheNames = CACHE_NAME, key = "'all-users'")
+    /**
+     * Selected fields of one user. With a hash-backed users cache a hit reads only those fields
+     * (HMGET); otherwise the whole user is read through the cache. Null when the user does not exist.
+     */
+    public Map<String, Object> getUserFields(Long id, List<String> fields) {
+        Map<String, String> cached = userCacheSupport.getFields(id, fields);
+        Map<String, Object> projection = new LinkedHashMap<>();
+        if (cached != null) {
+            cached.forEach((field, value) -> projection.put(field,
+                    UserHashMapper.ID.equals(field) && value != null ? Long.valueOf(value) : value));
+            return projection;
+        }
+        User user = findCachedOrLoad(id);
+        if (user == null) {
+            return null;
+        }
+        Map<String, String> hash = USER_HASH_MAPPER.toHash(user);
+        for (String field : fields) {
+            projection.put(field, UserHashMapper.ID.equals(field) ? user.getId() : hash.get(field));
+        }
+        return projection;
+    }
+
+    /**
+     * Cache-aside multi-get: one MGET for all IDs, one findAllById for the misses and one
+     * pipelined write-back that skips entries a concurrent write has put meanwhile (SET NX).
+     * Unknown IDs are skipped; the result follows the request order.
+     */
+    public List<User> getUsersByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, User> found = new HashMap<>(userCacheSupport.getAll(distinctIds));
+
+        List<Long> misses = distinctIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            log.debug("Loading {} of {} users from database", misses.size(), distinctIds.size());
+            List<User> loaded = userRepository.findAllById(misses);
+            loaded.forEach(user -> found.put(user.getId(), user));
+            userCacheSupport.putAllIfAbsent(loaded);
+        }
+        return distinctIds.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Writes keep their caches current themselves instead of through @CachePut/@CacheEvict, which
+     * would run after the method returns: the versions behind the ETags are bumped only once the
+     * new entries are in place, so a new ETag is never served with a body cached before the change.
+     */
     public List<User> createUsersInBulk(List<User> users) {
         log.info("Creating {} users in bulk", users.size());
-        return users.stream()
-                .map(userRepository::save)
-                .toList();
+        long start = System.nanoTime();
+        List<User> created = userRepository.insertAll(users, applicationProperties.getBulk().getBatchSize());
+        long insertNanos = System.nanoTime() - start;
+
+        // Warm the per-ID entries and the name index instead of leaving them to the first reads
+        userIdFilter.addUsers(created);
+        userCacheSupport.putAll(created);
+        userNameIndex.addAll(created);
+        evictAllUsers();
+        userVersions.bump(created.stream().map(User::getId).toList());
+        long totalNanos = System.nanoTime() - start;
+
+        meterRegistry.timer("users.bulk.insert").record(totalNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("users.bulk.rows").increment(created.size());
+        log.info("Bulk created {} users in {} ms (db {} ms, {} rows/s)", created.size(),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos), TimeUnit.NANOSECONDS.toMillis(insertNanos),
+                totalNanos > 0 ? created.size() * 1_000_000_000L / totalNanos : created.size());
+        return created;
     }
 
-    @Caching(put = @CachePut(cacheNames = CACHE_NAME, key = "#result.id"), evict = @CacheEvict(cacheNames = CACHE_NAME, key = "'all-users'"))
     public User createUser(User user) {
         log.info("Creating user: {}", user.getName());
-        return userRepository.save(user);
+        User created = userRepository.save(user);
+        userIdFilter.add(created.getId());
+        userNameIndex.add(created);
+        cachePut(CACHE_NAME, created.getId(), created);
+        evictAllUsers();
+        userVersions.bump(created.getId());
+        return created;
     }
 
-    @Caching(put = @CachePut(cacheNames = CACHE_NAME, key = "#result.id"), evict = @CacheEvict(cacheNames = CACHE_NAME, key = "'all-users'"))
     public User updateUser(Long id, User userDetails) {
         log.info("Updating user with ID: {}", id);
+        if (userWriteBehind.isEnabled()) {
+            // Write-behind: the current state usually comes from the cache, the new state is
+            // queued for MySQL and cached right away. A rejected update (queue full,
+            // Redis down) fails with 503 rather than racing the queued updates to MySQL.
+            User current = findCachedOrLoad(id);
+            if (current == null) {
+                return null;
+            }
+            User updated = new User(id, userDetails.getName(), userDetails.getEmail(), userDetails.getDesignation());
+            if (userWriteBehind.enqueue(updated)) {
+                userNameIndex.rename(id, current.getName(), updated);
+                return updated(updated);
+            }
+        }
         return userRepository.findById(id).map(user -> {
+            String previousName = user.getName();
             user.setName(userDetails.getName());
             user.setEmail(userDetails.getEmail());
             user.setDesignation(userDetails.getDesignation());
-            return userRepository.save(user);
+            User updated = userRepository.save(user);
+            userNameIndex.rename(id, previousName, updated);
+            return updated(updated);
         }).orElse(null);
     }
 
-    @Caching(evict = {
-            @CacheEvict(cacheNames = CACHE_NAME, key = "#id"),
-            @CacheEvict(cacheNames = CACHE_NAME, key = "'all-users'")
-    })
+    /**
+     * Changes only the given fields (name, email, designation). With a hash-backed users cache
+     * the cache write touches only the fields whose value changed.
+     */
+    public User patchUser(Long id, Map<String, String> fields) {
+        User current = findCachedOrLoad(id);
+        if (current == null) {
+            return null;
+        }
+        User patched = new User(id,
+                fields.getOrDefault(UserHashMapper.NAME, current.getName()),
+                fields.getOrDefault(UserHashMapper.EMAIL, current.getEmail()),
+                fields.getOrDefault(UserHashMapper.DESIGNATION, current.getDesignation()));
+        return updateUser(id, patched);
+    }
+
     public void deleteUser(Long id) {
         log.info("Deleting user with ID: {}", id);
-        userRepository.deleteById(id);
+        userRepository.findById(id).ifPresent(user -> {
+            userRepository.delete(user);
+            userIdFilter.remove(id);
+            userNameIndex.remove(user.getName(), id);
+        });
+        cacheEvict(CACHE_NAME, id);
+        cacheEvict(RESPONSE_CACHE_NAME, id);
+        evictAllUsers();
+        userVersions.bump(id);
+    }
+
+    private User updated(User user) {
+        cachePut(CACHE_NAME, user.getId(), user);
+        cacheEvict(RESPONSE_CACHE_NAME, user.getId());
+        evictAllUsers();
+        userVersions.bump(user.getId());
+        return user;
+    }
+
+    private void evictAllUsers() {
+        cacheEvict(CACHE_NAME, "all-users");
+        cacheEvict(RESPONSE_CACHE_NAME, "all-users");
+    }
+
+    // Errors go to the same handler as annotated cache operations: a Redis outage skips the write
+    private void cachePut(String cacheName, Object key, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            try {
+                cache.put(key, value);
+            } catch (RuntimeException e) {
+                cachingConfigurer.errorHandler().handleCachePutError(e, cache, key, value);
+            }
+        }
+    }
+
+    private void cacheEvict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            try {
+                cache.evict(key);
+            } catch (RuntimeException e) {
+                cachingConfigurer.errorHandler().handleCacheEvictError(e, cache, key);
+            }
+        }
+    }
+
+    private User findCachedOrLoad(Long id) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        User cached = cache != null ? cache.get(id, User.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+        User user = loadIfExists(id);
+        if (user != null && cache != null) {
+            cache.put(id, user);
+        }
+        return user;
+    }
+
+    // Same ObjectMapper as Spring MVC, so cached bodies match what the object path would render
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private User loadIfExists(Long id) {
+        if (!userIdFilter.mightExist(id)) {
+            return null;
+        }
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            userIdFilter.recordMissing(id);
+        }
+        return user;
     }
 }
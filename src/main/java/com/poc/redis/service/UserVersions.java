@@ -0,0 +1,204 @@
+package com.poc.redis.service;
+
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Version counters for the users collection and each user, used as HTTP ETags.
+ * <ul>
+ *   <li>ETag = epoch-version. Versions come from one sequence, so a version key that expired
+ *       (versionTtl) or was evicted is re-created with a value never handed out before.</li>
+ *   <li>The epoch and sequence share one hash; if Redis loses it, a new epoch invalidates every
+ *       ETag already given to clients.</li>
+ *   <li>UserService's writes and the write-behind flush bump after their cache updates and
+ *       evictions have completed, so a version is never attached to a body cached before the change.</li>
+ *   <li>Version keys expire versionTtl after they were created or last bumped, not after their
+ *       last read; the next read then starts them from a fresh sequence value.</li>
+ *   <li>A bump that cannot reach Redis rotates the epoch once Redis is back.</li>
+ * </ul>
+ * With near-cache or hot-key promotion, another instance can still attach a new version to its
+ * older local copy until the invalidation arrives; versionTtl bounds how long that ETag can match.
+ * Every read or bump is one script call; all keys share the {users} hash slot. Reads create a
+ * missing version key, so they run on the master even when other reads go to replicas: a lagging
+ * replica could otherwise answer 304 for a version that a write has already replaced.
+ */
+@Component
+@Slf4j
+public class UserVersions {
+
+    private static final String KEY_PREFIX = "app-version:{users}";
+    private static final String META_KEY = KEY_PREFIX + ":meta";
+    private static final String ALL_KEY = KEY_PREFIX + "::all";
+
+    // KEYS[1] meta hash, KEYS[2] version key; ARGV[1] epoch to use if none, ARGV[2] TTL in ms
+    private static final RedisScript<String> READ = new DefaultRedisScript<>("""
+            local epoch = redis.call('HGET', KEYS[1], 'epoch')
+            if not epoch then
+              epoch = ARGV[1]
+              redis.call('HSET', KEYS[1], 'epoch', epoch)
+            end
+            local version = redis.call('GET', KEYS[2])
+            if not version then
+              version = redis.call('HINCRBY', KEYS[1], 'seq', 1)
+              redis.call('SET', KEYS[2], version, 'PX', ARGV[2])
+            end
+            return epoch .. '-' .. version
+            """, String.class);
+
+    // KEYS[1] meta hash, KEYS[2..] version keys to move to new sequence values
+    private static final RedisScript<Long> BUMP = new DefaultRedisScript<>("""
+            if redis.call('HEXISTS', KEYS[1], 'epoch') == 0 then
+              redis.call('HSET', KEYS[1], 'epoch', ARGV[1])
+            end
+            local version = 0
+            for i = 2, #KEYS do
+              version = redis.call('HINCRBY', KEYS[1], 'seq', 1)
+              redis.call('SET', KEYS[i], version, 'PX', ARGV[2])
+            end
+            return version
+            """, Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private volatile boolean missedBumps;
+    private ScheduledExecutorService repairer;
+
+    public boolean isEnabled() {
+        return properties().isEnabled();
+    }
+
+    /**
+     * ETag (unquoted) for GET /users, or null when it cannot be determined
+     */
+    public String allUsersEtag() {
+        return read(ALL_KEY);
+    }
+
+    /**
+     * ETag (unquoted) for GET /users/{id}, or null when it cannot be determined
+     */
+    public String userEtag(Long id) {
+        return read(KEY_PREFIX + "::" + id);
+    }
+
+    /**
+     * The collection and the given users changed
+     */
+    public void bump(Long... ids) {
+        bump(Arrays.asList(ids));
+    }
+
+    public void bump(List<Long> ids) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(ids.size() + 2);
+        keys.add(META_KEY);
+        keys.add(ALL_KEY);
+        for (Long id : ids) {
+            if (id != null) {
+                keys.add(KEY_PREFIX + "::" + id);
+            }
+        }
+        if (!circuitBreaker.allowRequest()) {
+            missedBumps = true;
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(BUMP, keys, newEpoch(), ttlMillis());
+        } catch (Exception e) {
+            missedBumps = true;
+            circuitBreaker.recordFailure(e);
+            log.warn("Version bump failed for {} users, ETags will be reset: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        repairer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-versions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        repairer.scheduleWithFixedDelay(this::repair, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (repairer != null) {
+            repairer.shutdownNow();
+        }
+    }
+
+    /**
+     * After a missed bump, a new epoch makes every ETag issued so far stale
+     */
+    void repair() {
+        if (!missedBumps || circuitBreaker.isOpen()) {
+            return;
+        }
+        try {
+            String epoch = newEpoch();
+            stringRedisTemplate.opsForHash().put(META_KEY, "epoch", epoch);
+            missedBumps = false;
+            log.info("User versions reset to epoch {} after missed bumps", epoch);
+        } catch (Exception e) {
+            log.debug("User version epoch reset failed: {}", e.getMessage());
+        }
+    }
+
+    private String read(String versionKey) {
+        // Until the epoch is rotated this instance may hold back a missed bump: no conditional requests
+        if (!isEnabled() || missedBumps || !circuitBreaker.allowRequest()) {
+            return null;
+        }
+        try {
+            String etag = stringRedisTemplate.execute(READ, List.of(META_KEY, versionKey), newEpoch(), ttlMillis());
+            circuitBreaker.recordSuccess();
+            return etag;
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            log.debug("Version read failed for {}: {}", versionKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private String ttlMillis() {
+        return Long.toString(properties().getVersionTtl().toMillis());
+    }
+
+    private static String newEpoch() {
+        return Integer.toHexString(ThreadLocalRandom.current().nextInt());
+    }
+
+    private ApplicationProperties.Redis.Etag properties() {
+        return applicationProperties.getRedis().getEtag();
+    }
+}
@@ -0,0 +1,275 @@
+package com.poc.redis.service;
+
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.dao.UserRepository;
+import com.poc.redis.model.User;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in write-behind for user updates.
+ * Updates are appended to a Redis Stream (the durable queue) and the caller returns immediately;
+ * a background flusher reads the stream through a consumer group, keeps only the latest update
+ * per user ID and writes each batch to MySQL in one JDBC batch before acknowledging it.
+ * <ul>
+ *   <li>Backpressure: once the backlog reaches maxQueueSize, or while Redis cannot take the entry,
+ *       {@link #enqueue} rejects the update. It must not be written through: older queued updates
+ *       of the same user would overwrite it when they flush.</li>
+ *   <li>After each flushed batch the flushed users' entries, their response bodies and the cached
+ *       all-users list are evicted, since a read before the flush may have cached them from the old
+ *       rows (or the put at enqueue time may have failed), and then the versions are bumped so ETags
+ *       handed out for them stop matching. They are evicted rather than re-put: a newer update of the
+ *       same user may already be queued and cached.</li>
+ *   <li>Crash recovery: entries delivered to a consumer that died are claimed after claimIdle
+ *       and flushed again; the UPDATE is idempotent.</li>
+ *   <li>Ordering holds per instance; with several instances flushing the same group, two
+ *       updates of one user can land in either order.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class UserWriteBehind {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_EMAIL = "email";
+    private static final String FIELD_DESIGNATION = "designation";
+    private static final int MAX_BATCHES_PER_FLUSH = 20;
+    private static final String ALL_USERS_KEY = "all-users";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ApplicationProperties applicationProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private UserVersions userVersions;
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    private final String consumerName = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID();
+    private final AtomicLong backlog = new AtomicLong();
+    private ScheduledExecutorService flusher;
+    private Counter flushedCounter;
+    private Counter coalescedCounter;
+    private Counter rejectedCounter;
+
+    public boolean isEnabled() {
+        return properties().isEnabled();
+    }
+
+    /**
+     * Queues the update; returns false when write-behind is off, and the caller then writes to
+     * MySQL itself. Throws WriteBehindRejectedException when the queue is full or Redis is unavailable.
+     */
+    public boolean enqueue(User user) {
+        if (!isEnabled()) {
+            return false;
+        }
+        if (flusher == null) {
+            // Entries left by a previous run are still to be flushed
+            throw new WriteBehindRejectedException("Write-behind not started yet, update of user " + user.getId() + " rejected");
+        }
+        if (backlog.get() >= properties().getMaxQueueSize()) {
+            rejectedCounter.increment();
+            throw new WriteBehindRejectedException("Write-behind queue is full, update of user " + user.getId() + " rejected");
+        }
+        if (!circuitBreaker.allowRequest()) {
+            rejectedCounter.increment();
+            throw new WriteBehindRejectedException("Redis unavailable, update of user " + user.getId() + " rejected");
+        }
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FIELD_ID, user.getId().toString());
+        putIfNotNull(fields, FIELD_NAME, user.getName());
+        putIfNotNull(fields, FIELD_EMAIL, user.getEmail());
+        putIfNotNull(fields, FIELD_DESIGNATION, user.getDesignation());
+        try {
+            stringRedisTemplate.opsForStream().add(properties().getStreamKey(), fields);
+            circuitBreaker.recordSuccess();
+            backlog.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            circuitBreaker.recordFailure(e);
+            rejectedCounter.increment();
+            log.warn("Write-behind enqueue failed for user {}: {}", user.getId(), e.getMessage());
+            throw new WriteBehindRejectedException("Could not queue update of user " + user.getId(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        createGroup();
+        flushedCounter = meterRegistry.counter("users.writebehind.flushed");
+        coalescedCounter = meterRegistry.counter("users.writebehind.coalesced");
+        rejectedCounter = meterRegistry.counter("users.writebehind.rejected");
+        Gauge.builder("users.writebehind.backlog", backlog, AtomicLong::get).register(meterRegistry);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties().getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Write-behind enabled - stream: {}, group: {}, consumer: {}, interval: {}",
+                properties().getStreamKey(), properties().getGroup(), consumerName, properties().getFlushInterval());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(properties().getFlushInterval().toMillis() * 2, TimeUnit.MILLISECONDS);
+        // Final drain; anything left stays pending in the stream and is claimed on the next start
+        flush();
+    }
+
+    void flush() {
+        try {
+            List<MapRecord<String, Object, Object>> records = claimAbandoned();
+            for (int i = 0; i < MAX_BATCHES_PER_FLUSH; i++) {
+                records.addAll(readNewRecords());
+                if (records.isEmpty()) {
+                    break;
+                }
+                boolean fullBatch = records.size() >= properties().getBatchSize();
+                writeBatch(records);
+                records = new ArrayList<>();
+                if (!fullBatch) {
+                    break;
+                }
+            }
+            Long size = streams().size(properties().getStreamKey());
+            backlog.set(size != null ? size : 0);
+        } catch (Exception e) {
+            log.warn("Write-behind flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<MapRecord<String, Object, Object>> records) {
+        // Later updates of the same user replace earlier ones
+        Map<Long, User> latest = new LinkedHashMap<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            User user = toUser(record.getValue());
+            latest.put(user.getId(), user);
+        }
+        int updated = userRepository.updateAll(latest.values(), properties().getBatchSize());
+
+        RecordId[] ids = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+        streams().acknowledge(properties().getStreamKey(), properties().getGroup(), ids);
+        streams().delete(properties().getStreamKey(), ids);
+        evictFlushed(latest.keySet());
+        userVersions.bump(new ArrayList<>(latest.keySet()));
+
+        flushedCounter.increment(latest.size());
+        coalescedCounter.increment(records.size() - latest.size());
+        log.debug("Write-behind flushed {} updates as {} rows ({} matched)", records.size(), latest.size(), updated);
+    }
+
+    private void evictFlushed(Collection<Long> userIds) {
+        for (String cacheName : List.of(UserCacheSupport.CACHE_NAME, UserCacheSupport.RESPONSE_CACHE_NAME)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                userIds.forEach(cache::evict);
+                cache.evict(ALL_USERS_KEY);
+            }
+        }
+    }
+
+    private List<MapRecord<String, Object, Object>> readNewRecords() {
+        List<MapRecord<String, Object, Object>> records = streams().read(
+                Consumer.from(properties().getGroup(), consumerName),
+                StreamReadOptions.empty().count(properties().getBatchSize()),
+                StreamOffset.create(properties().getStreamKey(), ReadOffset.lastConsumed()));
+        return records != null ? records : List.of();
+    }
+
+    private List<MapRecord<String, Object, Object>> claimAbandoned() {
+        PendingMessages pending = streams().pending(properties().getStreamKey(), properties().getGroup(),
+                Range.unbounded(), properties().getBatchSize());
+        RecordId[] stale = pending.stream()
+                .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(properties().getClaimIdle()) >= 0)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (stale.length == 0) {
+            return new ArrayList<>();
+        }
+        log.info("Claiming {} abandoned write-behind entries", stale.length);
+        return new ArrayList<>(streams().claim(properties().getStreamKey(), properties().getGroup(),
+                consumerName, properties().getClaimIdle(), stale));
+    }
+
+    private void createGroup() {
+        try {
+            streams().createGroup(properties().getStreamKey(), ReadOffset.from("0"), properties().getGroup());
+        } catch (Exception e) {
+            // BUSYGROUP: another instance created it first
+            log.debug("Write-behind consumer group already exists: {}", e.getMessage());
+        }
+    }
+
+    private static User toUser(Map<Object, Object> fields) {
+        return new User(Long.valueOf((String) fields.get(FIELD_ID)),
+                (String) fields.get(FIELD_NAME),
+                (String) fields.get(FIELD_EMAIL),
+                (String) fields.get(FIELD_DESIGNATION));
+    }
+
+    private static void putIfNotNull(Map<String, String> fields, String field, String value) {
+        if (value != null) {
+            fields.put(field, value);
+        }
+    }
+
+    private StreamOperations<String, Object, Object> streams() {
+        return stringRedisTemplate.opsForStream();
+    }
+
+    private ApplicationProperties.Redis.WriteBehind properties() {
+        return applicationProperties.getRedis().getWriteBehind();
+    }
+}
@@ -0,0 +1,20 @@
+package com.poc.redis.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * An update could not be queued for write-behind. It is not written through either, because
+ * queued updates of the same user would overwrite it when they flush; the client should retry.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteBehindRejectedException extends RuntimeException {
+
+    public WriteBehindRejectedException(String message) {
+        super(message);
+    }
+
+    public WriteBehindRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
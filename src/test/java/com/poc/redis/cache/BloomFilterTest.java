@@ -0,0 +1,83 @@
+package com.poc.redis.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    @Test
+    void testSizedFromExpectedInsertionsAndRate() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+        // m = -n ln p / (ln 2)^2 ~ 9.59M bits, k = m / n ln 2 ~ 7
+        assertEquals(9_585_059, filter.getBits());
+        assertEquals(7, filter.getHashes());
+    }
+
+    @Test
+    void testOffsetsStayClearOfTheHeader() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            for (long offset : filter.offsets(id)) {
+                assertTrue(offset >= BloomFilter.HEADER_BITS && offset < BloomFilter.HEADER_BITS + filter.getBits(),
+                        "offset " + offset);
+            }
+        }
+    }
+
+    @Test
+    void testBitmapHasNoFalseNegativesAndFewFalsePositives() {
+        int inserted = 10_000;
+        BloomFilter filter = new BloomFilter(inserted, 0.01);
+        long[] ids = new long[inserted];
+        for (int i = 0; i < inserted; i++) {
+            ids[i] = i + 1;
+        }
+        byte[] bitmap = filter.bitmap(ids, inserted);
+
+        assertTrue(BloomFilter.getBit(bitmap, BloomFilter.MARKER_OFFSET));
+        for (long id : ids) {
+            assertTrue(contains(filter, bitmap, id), "inserted id " + id);
+        }
+        int falsePositives = 0;
+        for (long id = inserted + 1; id <= inserted * 11L; id++) {
+            if (contains(filter, bitmap, id)) {
+                falsePositives++;
+            }
+        }
+        // 100,000 absent IDs at a 1% target
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testHeaderRecordsGeometry() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+        byte[] bitmap = filter.bitmap(new long[0], 0);
+        long bits = BloomFilter.readHeader(bitmap, BloomFilter.BITS_OFFSET, 32);
+        long hashes = BloomFilter.readHeader(bitmap, BloomFilter.HASHES_OFFSET, 8);
+        assertEquals(filter.getBits(), bits);
+        assertEquals(filter.getHashes(), hashes);
+        assertTrue(filter.matches(bits, hashes));
+        assertFalse(new BloomFilter(2_000_000, 0.01).matches(bits, hashes));
+        assertFalse(new BloomFilter(1_000_000, 0.001).matches(bits, hashes));
+    }
+
+    @Test
+    void testBitOrderMatchesRedis() {
+        byte[] bitmap = new byte[2];
+        // SETBIT key 0 1 sets the high bit of the first byte, SETBIT key 15 1 the low bit of the second
+        BloomFilter.setBit(bitmap, 0);
+        BloomFilter.setBit(bitmap, 15);
+        assertEquals((byte) 0x80, bitmap[0]);
+        assertEquals((byte) 0x01, bitmap[1]);
+    }
+
+    private static boolean contains(BloomFilter filter, byte[] bitmap, long id) {
+        for (long offset : filter.offsets(id)) {
+            if (!BloomFilter.getBit(bitmap, offset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,79 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.config.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheTtlPolicyTest {
+
+    private static CacheTtlPolicy policy(double jitter) {
+        ApplicationProperties.Redis redis = new ApplicationProperties.Redis();
+        redis.setTtl(Duration.ofMinutes(10));
+        redis.getTtlPolicy().setJitter(jitter);
+
+        ApplicationProperties.Redis.TtlPolicy.KeyPattern allUsers = new ApplicationProperties.Redis.TtlPolicy.KeyPattern();
+        allUsers.setPattern("all-*");
+        allUsers.setTtl(Duration.ofMinutes(1));
+        ApplicationProperties.Redis.TtlPolicy.CacheTtl users = new ApplicationProperties.Redis.TtlPolicy.CacheTtl();
+        users.setTtl(Duration.ofMinutes(30));
+        users.setKeyPatterns(List.of(allUsers));
+        redis.getTtlPolicy().getCaches().put("users", users);
+        return new CacheTtlPolicy(redis, null);
+    }
+
+    @Test
+    void testResolvesKeyPatternThenCacheThenDefault() {
+        CacheTtlPolicy policy = policy(0);
+        assertEquals(Duration.ofMinutes(1), policy.timeToLive("users", "all-users"));
+        assertEquals(Duration.ofMinutes(30), policy.timeToLive("users", 42L));
+        assertEquals(Duration.ofMinutes(10), policy.timeToLive("orders", 42L));
+    }
+
+    @Test
+    void testOverridesTakePrecedence() {
+        CacheTtlPolicy policy = policy(0);
+        policy.updateOverrides(Map.of("users", Duration.ofMinutes(5), "users::all-users", Duration.ofSeconds(30)));
+        assertEquals(Duration.ofSeconds(30), policy.timeToLive("users", "all-users"));
+        assertEquals(Duration.ofMinutes(5), policy.timeToLive("users", 42L));
+
+        policy.updateOverrides(Map.of());
+        assertEquals(Duration.ofMinutes(30), policy.timeToLive("users", 42L));
+    }
+
+    @Test
+    void testJitterOnlyShortensTtl() {
+        CacheTtlPolicy policy = policy(0.2);
+        Duration max = Duration.ofMinutes(30);
+        Duration min = policy.minTimeToLive("users", 42L);
+        assertEquals(Duration.ofMinutes(24), min);
+        boolean spread = false;
+        for (int i = 0; i < 100; i++) {
+            Duration ttl = policy.timeToLive("users", 42L);
+            assertTrue(ttl.compareTo(max) <= 0 && ttl.compareTo(min) >= 0, ttl.toString());
+            spread |= !ttl.equals(max);
+        }
+        assertTrue(spread);
+    }
+
+    @Test
+    void testInvalidOverridesAreIgnored() {
+        Map<String, Duration> parsed = CacheTtlPolicy.parse(Map.of("users", "5m", "orders", "soon"));
+        assertEquals(Map.of("users", Duration.ofMinutes(5)), parsed);
+    }
+
+    @Test
+    void testNonPositiveOverridesRejected() {
+        CacheTtlPolicy policy = policy(0);
+        assertThrows(IllegalArgumentException.class, () -> policy.setOverride("users", null, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> policy.setOverride("users", "all-*", Duration.ofSeconds(-5)));
+        assertThrows(IllegalArgumentException.class, () -> policy.setOverride("users", null, null));
+
+        Map<String, Duration> parsed = CacheTtlPolicy.parse(Map.<Object, Object>of("users", "0s", "users::all-users", "-1m", "orders", "30s"));
+        assertEquals(Map.of("orders", Duration.ofSeconds(30)), parsed);
+    }
+}
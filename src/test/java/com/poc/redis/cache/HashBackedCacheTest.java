@@ -0,0 +1,64 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class HashBackedCacheTest {
+
+    private final Cache delegate = mock(Cache.class);
+    @SuppressWarnings("unchecked")
+    private final RedisHashStore<User> store = mock(RedisHashStore.class);
+    private final CacheTtlPolicy ttlPolicy = mock(CacheTtlPolicy.class);
+    private final HashBackedCache<User> cache = new HashBackedCache<>(delegate, "app-cache:users::", User.class, store, ttlPolicy);
+
+    @Test
+    void testIdKeysReadFromHashStore() {
+        User user = new User(1L, "Ann", "ann@example.com", "dev");
+        when(store.get("app-cache:users::1")).thenReturn(user);
+        assertSame(user, cache.get(1L).get());
+        verify(delegate, never()).get(any());
+    }
+
+    @Test
+    void testWrongTypeFallsBackToSerializedValue() {
+        User user = new User(1L, "Ann", "ann@example.com", "dev");
+        when(store.get("app-cache:users::1")).thenThrow(new InvalidDataAccessApiUsageException(
+                "WRONGTYPE Operation against a key holding the wrong kind of value"));
+        when(delegate.get(1L)).thenReturn(new SimpleValueWrapper(user));
+        assertSame(user, cache.get(1L).get());
+    }
+
+    @Test
+    void testOtherRedisErrorsPropagate() {
+        when(store.get("app-cache:users::1")).thenThrow(new RedisConnectionFailureException("connection refused"));
+        assertThrows(RedisConnectionFailureException.class, () -> cache.get(1L));
+        when(store.get("app-cache:users::2")).thenThrow(new RedisSystemException("Command timed out", null));
+        assertThrows(RedisSystemException.class, () -> cache.get(2L));
+        verify(delegate, never()).get(any());
+    }
+
+    @Test
+    void testEntitiesWrittenAsHashesOtherValuesByDelegate() {
+        User user = new User(1L, "Ann", "ann@example.com", "dev");
+        when(ttlPolicy.timeToLive("users", 1L)).thenReturn(Duration.ofMinutes(10));
+        when(delegate.getName()).thenReturn("users");
+
+        cache.put(1L, user);
+        verify(store).put("app-cache:users::1", user, Duration.ofMinutes(10));
+
+        cache.put("all-users", List.of(user));
+        verify(delegate).put("all-users", List.of(user));
+    }
+}
@@ -0,0 +1,52 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.hotkey.HotKeyDetector;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotKeyCacheTest {
+
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("users");
+    private final HotKeyCache cache = new HotKeyCache(remote, detector(), new NearCache(10, Duration.ofMinutes(1)));
+
+    private static HotKeyDetector detector() {
+        ApplicationProperties.Redis.HotKeys properties = new ApplicationProperties.Redis.HotKeys();
+        properties.setEnabled(true);
+        properties.setSampleRate(1);
+        properties.setMinSamples(2);
+        return new HotKeyDetector(properties);
+    }
+
+    @Test
+    void testUnpinAllServesKeysRemovedBehindTheCache() {
+        remote.put(1L, "old");
+        for (int i = 0; i < 4; i++) {
+            cache.get(1L, String.class);
+        }
+        // Unlinked in Redis without going through the cache
+        remote.evict(1L);
+        assertEquals("old", cache.get(1L, String.class));
+        assertTrue(cache.getPinnedHits() > 0);
+
+        cache.unpinAll();
+        assertNull(cache.get(1L, String.class));
+    }
+
+    @Test
+    void testClearAllMessageIsRecognised() {
+        assertTrue(LayeredCacheManager.isClearAll(message(LayeredCacheManager.clearAllMessage())));
+        assertFalse(LayeredCacheManager.isClearAll(message("other-instance|users|1")));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("app-cache:invalidations".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
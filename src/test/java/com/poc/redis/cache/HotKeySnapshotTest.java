@@ -0,0 +1,62 @@
+package com.poc.redis.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotKeySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRoundTripSortsAndDeduplicates() throws IOException {
+        Path path = dir.resolve("hot.snapshot");
+        HotKeySnapshot.write(path, new long[]{42, 7, 1_000_000_000_000L, 7, 300});
+        assertArrayEquals(new long[]{7, 42, 300, 1_000_000_000_000L}, HotKeySnapshot.read(path, 10));
+    }
+
+    @Test
+    void testDenseIdsTakeAboutOneBytePerId() throws IOException {
+        long[] ids = new long[100_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 5_000_000L + i * 3L;
+        }
+        Path path = dir.resolve("dense.snapshot");
+        HotKeySnapshot.write(path, ids);
+        assertTrue(Files.size(path) < ids.length + 64);
+        assertArrayEquals(ids, HotKeySnapshot.read(path, ids.length));
+    }
+
+    @Test
+    void testCorruptSnapshotRejected() throws IOException {
+        Path path = dir.resolve("corrupt.snapshot");
+        HotKeySnapshot.write(path, new long[]{1, 2, 3});
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[5] ^= 0x01;
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> HotKeySnapshot.read(path, 10));
+    }
+
+    @Test
+    void testOversizedCountRejectedBeforeAllocating() throws IOException {
+        Path path = dir.resolve("huge.snapshot");
+        // Magic followed by a varint count of Integer.MAX_VALUE - 8 and nothing else
+        Files.write(path, new byte[]{0x48, 0x4B, 0x53, 0x31, (byte) 0xF7, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+        IOException e = assertThrows(IOException.class, () -> HotKeySnapshot.read(path, 1000));
+        assertTrue(e.getMessage().contains("exceeds"));
+    }
+
+    @Test
+    void testSnapshotLargerThanLimitRejected() throws IOException {
+        Path path = dir.resolve("large.snapshot");
+        HotKeySnapshot.write(path, new long[]{1, 2, 3, 4});
+        assertThrows(IOException.class, () -> HotKeySnapshot.read(path, 3));
+        assertEquals(4, HotKeySnapshot.read(path, 4).length);
+    }
+}
@@ -0,0 +1,57 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class LayeredCacheManagerTest {
+
+    private final ConcurrentMapCacheManager remote = new ConcurrentMapCacheManager();
+    private final LayeredCacheManager manager = new LayeredCacheManager(remote,
+            new ApplicationProperties.Redis.NearCache(), mock(StringRedisTemplate.class), new SimpleMeterRegistry());
+
+    @Test
+    void testClearAllMessageDropsEveryLocalCopy() {
+        Cache users = manager.getCache("users");
+        Cache bodies = manager.getCache("users-http");
+        users.put(1L, "old");
+        bodies.put(1L, "old-body");
+        // Keys removed (or changed) in Redis behind the caches' back
+        remote.getCache("users").put(1L, "new");
+        remote.getCache("users-http").evict(1L);
+        assertEquals("old", users.get(1L, String.class));
+
+        manager.onMessage(message(LayeredCacheManager.clearAllMessage()), null);
+
+        assertEquals("new", users.get(1L, String.class));
+        assertNull(bodies.get(1L));
+    }
+
+    @Test
+    void testSingleKeyInvalidationFromOtherInstance() {
+        Cache users = manager.getCache("users");
+        users.put(1L, "old");
+        users.put(2L, "kept");
+        remote.getCache("users").put(1L, "new");
+        remote.getCache("users").put(2L, "changed");
+
+        manager.onMessage(message("other-instance|users|1"), null);
+
+        assertEquals("new", users.get(1L, String.class));
+        assertEquals("kept", users.get(2L, String.class));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("app-cache:invalidations".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,38 @@
+package com.poc.redis.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NearCacheTest {
+
+    @Test
+    void testPutAndGet() {
+        NearCache nearCache = new NearCache(10, Duration.ofMinutes(1));
+        nearCache.put("1", "Alice");
+        assertEquals("Alice", nearCache.get("1"));
+        nearCache.evict("1");
+        assertNull(nearCache.get("1"));
+    }
+
+    @Test
+    void testOldestEntriesEvictedPastMaxSize() {
+        NearCache nearCache = new NearCache(2, Duration.ofMinutes(1));
+        nearCache.put("1", "Alice");
+        nearCache.put("2", "Bob");
+        nearCache.put("3", "Carol");
+        assertEquals(2, nearCache.size());
+        assertNull(nearCache.get("1"));
+        assertEquals("Carol", nearCache.get("3"));
+    }
+
+    @Test
+    void testExpiredEntriesAreNotReturned() throws InterruptedException {
+        NearCache nearCache = new NearCache(10, Duration.ofMillis(1));
+        nearCache.put("1", "Alice");
+        Thread.sleep(5);
+        assertNull(nearCache.get("1"));
+    }
+}
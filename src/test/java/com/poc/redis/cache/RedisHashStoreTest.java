@@ -0,0 +1,136 @@
+package com.poc.redis.cache;
+
+import com.poc.redis.model.User;
+import com.poc.redis.serializer.UserHashMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the hash write scripts against a Redis started from the embedded binaries on a free port.
+ */
+public class RedisHashStoreTest {
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate template;
+    private static RedisHashStore<User> store;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = RedisServer.newRedisServer().port(port).build();
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        template = new StringRedisTemplate(connectionFactory);
+        store = new RedisHashStore<>(template, new UserHashMapper(), true);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @BeforeEach
+    void flush() {
+        template.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    @Test
+    void testPutWritesOnlyChangedFieldsAndDropsMissingOnes() {
+        assertEquals(4, store.put("u:1", new User(1L, "Ann", "ann@example.com", "dev"), Duration.ofMinutes(5)));
+        assertEquals(1, store.put("u:1", new User(1L, "Ann", "ann@example.com", "lead"), Duration.ofMinutes(5)));
+        assertEquals(0, store.put("u:1", new User(1L, "Ann", "ann@example.com", null), Duration.ofMinutes(5)));
+
+        assertEquals(Map.of("id", "1", "name", "Ann", "email", "ann@example.com"), template.opsForHash().entries("u:1"));
+        assertTrue(template.getExpire("u:1") > 0);
+    }
+
+    @Test
+    void testPipelinedPutAllSurvivesFlushedScriptCache() {
+        store.put("u:0", new User(0L, "Zed", "zed@example.com", "ops"), null);
+        template.execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+
+        store.putAll(users(1, 50), user -> Duration.ofMinutes(5));
+
+        Map<String, User> found = store.getAll(List.copyOf(users(1, 50).keySet()));
+        assertEquals(50, found.size());
+        assertEquals("user-7", found.get("u:7").getName());
+    }
+
+    @Test
+    void testSerializedValuesAreReplacedOnWriteAndMissesOnRead() {
+        template.opsForValue().set("u:1", "serialized-before-the-switch");
+        template.opsForValue().set("u:2", "serialized-before-the-switch");
+
+        Map<String, User> found = store.getAll(List.of("u:1", "u:2", "u:3"));
+        assertTrue(found.isEmpty());
+
+        store.putAll(users(1, 2), user -> Duration.ofMinutes(5));
+        assertEquals("user-2", store.get("u:2").getName());
+    }
+
+    @Test
+    void testPutIfAbsentKeepsExistingEntry() {
+        assertTrue(store.putIfAbsent("u:1", new User(1L, "Ann", null, null), Duration.ofMinutes(5)));
+        assertFalse(store.putIfAbsent("u:1", new User(1L, "Bob", null, null), Duration.ofMinutes(5)));
+        assertEquals("Ann", store.get("u:1").getName());
+    }
+
+    @Test
+    void testPutAllIfAbsentKeepsExistingHashesAndReplacesSerializedValues() {
+        store.put("u:1", new User(1L, "newer", "ann@example.com", "lead"), Duration.ofMinutes(5));
+        template.opsForValue().set("u:2", "serialized-before-the-switch");
+        template.execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+
+        store.putAllIfAbsent(users(1, 3), user -> Duration.ofMinutes(5));
+
+        Map<String, User> found = store.getAll(List.of("u:1", "u:2", "u:3"));
+        assertEquals("newer", found.get("u:1").getName());
+        assertEquals("user-2", found.get("u:2").getName());
+        assertEquals("user-3", found.get("u:3").getName());
+        assertTrue(template.getExpire("u:3") > 0);
+    }
+
+    private static Map<String, User> users(int from, int to) {
+        Map<String, User> users = new LinkedHashMap<>();
+        for (long id = from; id <= to; id++) {
+            users.put("u:" + id, new User(id, "user-" + id, "user" + id + "@example.com", "dev"));
+        }
+        return users;
+    }
+}
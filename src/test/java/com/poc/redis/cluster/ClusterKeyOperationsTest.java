@@ -0,0 +1,215 @@
+package com.poc.redis.cluster;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against a three-master cluster started from the embedded Redis binaries on random
+ * free ports, so it is part of the plain {@code mvn test} run with no external Redis.
+ */
+public class ClusterKeyOperationsTest {
+
+    private static final int NODES = 3;
+    private static final int SLOTS = 16384;
+    private static final int KEYS = 500;
+
+    private static final List<RedisServer> servers = new ArrayList<>();
+    private static final List<Integer> ports = new ArrayList<>();
+    private static LettuceConnectionFactory connectionFactory;
+    private static ClusterKeyOperations clusterKeyOperations;
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        for (int i = 0; i < NODES; i++) {
+            int port = freePort();
+            RedisServer server = RedisServer.newRedisServer()
+                    .port(port)
+                    .setting("cluster-enabled yes")
+                    .setting("cluster-config-file nodes-" + port + ".conf")
+                    .setting("cluster-node-timeout 2000")
+                    .build();
+            server.start();
+            servers.add(server);
+            ports.add(port);
+        }
+
+        RedisClient client = RedisClient.create();
+        try {
+            for (int i = 0; i < NODES; i++) {
+                try (StatefulRedisConnection<String, String> node = client.connect(RedisURI.create("127.0.0.1", ports.get(i)))) {
+                    int from = i * SLOTS / NODES;
+                    int to = (i + 1) * SLOTS / NODES;
+                    node.sync().clusterAddSlots(IntStream.range(from, to).toArray());
+                    if (i > 0) {
+                        node.sync().clusterMeet("127.0.0.1", ports.get(0));
+                    }
+                }
+            }
+            awaitClusterOk(client);
+        } finally {
+            client.shutdown();
+        }
+
+        List<String> nodes = ports.stream().map(port -> "127.0.0.1:" + port).toList();
+        connectionFactory = new LettuceConnectionFactory(new RedisClusterConfiguration(nodes));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        clusterKeyOperations = new ClusterKeyOperations(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopCluster() throws IOException {
+        if (clusterKeyOperations != null) {
+            clusterKeyOperations.shutdown();
+        }
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        for (RedisServer server : servers) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testSetAllAndMGetAcrossSlots() {
+        List<ClusterKeyOperations.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            entries.add(new ClusterKeyOperations.Entry(bytes("mget:" + i), bytes("value-" + i), Duration.ofMinutes(5)));
+        }
+        clusterKeyOperations.setAll(entries);
+
+        byte[][] keys = new byte[KEYS + 1][];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = bytes("mget:" + i);
+        }
+        keys[KEYS] = bytes("mget:missing");
+        assertTrue(ClusterKeyOperations.groupBySlot(keys).size() > NODES);
+
+        List<byte[]> values = clusterKeyOperations.mGet(keys);
+        assertEquals(KEYS + 1, values.size());
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals("value-" + i, new String(values.get(i), StandardCharsets.UTF_8));
+        }
+        assertNull(values.get(KEYS));
+    }
+
+    @Test
+    void testSetAllIfAbsentKeepsExistingValues() {
+        clusterKeyOperations.setAll(List.of(new ClusterKeyOperations.Entry(bytes("nx:0"), bytes("newer"), null)));
+        List<ClusterKeyOperations.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            entries.add(new ClusterKeyOperations.Entry(bytes("nx:" + i), bytes("value-" + i), Duration.ofMinutes(5)));
+        }
+        clusterKeyOperations.setAll(entries, true);
+
+        List<byte[]> values = clusterKeyOperations.mGet(new byte[][] {bytes("nx:0"), bytes("nx:1")});
+        assertEquals("newer", new String(values.get(0), StandardCharsets.UTF_8));
+        assertEquals("value-1", new String(values.get(1), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testScanAndUnlinkCoverEveryNode() {
+        List<ClusterKeyOperations.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            entries.add(new ClusterKeyOperations.Entry(bytes("scan:" + i), bytes("v"), null));
+        }
+        clusterKeyOperations.setAll(entries);
+
+        Set<String> scanned = new HashSet<>();
+        clusterKeyOperations.scan("scan:*", 100, scanned::add);
+        assertEquals(KEYS, scanned.size());
+
+        assertEquals(KEYS, clusterKeyOperations.unlinkByPattern("scan:*", 100));
+        Set<String> remaining = new HashSet<>();
+        clusterKeyOperations.scan("scan:*", 100, remaining::add);
+        assertTrue(remaining.isEmpty());
+    }
+
+    @Test
+    void testCacheClearRemovesKeysOnEveryNode() {
+        RedisCacheManager cacheManager = new RedisCacheManager(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, clusterKeyOperations.cleanStrategy(100)),
+                RedisCacheConfiguration.defaultCacheConfig().prefixCacheNameWith("clear-test:"));
+        Cache cache = cacheManager.getCache("users");
+        for (int i = 0; i < KEYS; i++) {
+            cache.put(i, "user-" + i);
+        }
+        Set<String> stored = new HashSet<>();
+        clusterKeyOperations.scan("clear-test:users::*", 100, stored::add);
+        assertEquals(KEYS, stored.size());
+
+        cache.clear();
+
+        Set<String> remaining = new HashSet<>();
+        clusterKeyOperations.scan("clear-test:users::*", 100, remaining::add);
+        assertTrue(remaining.isEmpty());
+        assertNull(cache.get(0));
+    }
+
+    @Test
+    void testHashTaggedKeysShareOneSlot() {
+        byte[][] keys = {bytes("app-cache:{users}::1"), bytes("app-cache:{users}::2"), bytes("app-cache:{users}::3")};
+        assertEquals(1, ClusterKeyOperations.groupBySlot(keys).size());
+    }
+
+    private static void awaitClusterOk(RedisClient client) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        for (int port : ports) {
+            try (StatefulRedisConnection<String, String> node = client.connect(RedisURI.create("127.0.0.1", port))) {
+                while (!node.sync().clusterInfo().contains("cluster_state:ok")) {
+                    if (System.nanoTime() - deadline > 0) {
+                        fail("Cluster did not reach state ok on port " + port);
+                    }
+                    Thread.sleep(100);
+                }
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Each node also listens on port + 10000 for the cluster bus
+    private static int freePort() {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            int port = ThreadLocalRandom.current().nextInt(20_000, 40_000);
+            if (!ports.contains(port) && isFree(port) && isFree(port + 10_000)) {
+                return port;
+            }
+        }
+        throw new IllegalStateException("No free port pair for a cluster node");
+    }
+
+    private static boolean isFree(int port) {
+        try (ServerSocket socket = new ServerSocket(port)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.poc.redis.counter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CounterLeaseTest {
+
+    @Test
+    void testOneRoundTripPerBlock() {
+        AtomicLong redis = new AtomicLong();
+        AtomicLong roundTrips = new AtomicLong();
+        LongUnaryOperator leaser = size -> {
+            roundTrips.incrementAndGet();
+            return redis.addAndGet(size);
+        };
+        CounterLease lease = new CounterLease();
+        for (long expected = 1; expected <= 25; expected++) {
+            assertEquals(expected, lease.increment(leaser, 10, 0));
+        }
+        assertEquals(3, roundTrips.get());
+        assertEquals(30, redis.get());
+        assertEquals(5, lease.remaining());
+    }
+
+    @Test
+    void testBlocksInterleaveAcrossInstances() {
+        AtomicLong redis = new AtomicLong();
+        LongUnaryOperator leaser = redis::addAndGet;
+        CounterLease first = new CounterLease();
+        CounterLease second = new CounterLease();
+        assertEquals(1, first.increment(leaser, 10, 0));
+        assertEquals(11, second.increment(leaser, 10, 0));
+        assertEquals(2, first.increment(leaser, 10, 0));
+    }
+
+    @Test
+    void testReleaseReturnsUnusedAndCloses() {
+        AtomicLong redis = new AtomicLong();
+        CounterLease lease = new CounterLease();
+        lease.increment(redis::addAndGet, 10, 0);
+        lease.increment(redis::addAndGet, 10, 0);
+        assertEquals(8, lease.release());
+        assertEquals(CounterLease.CLOSED, lease.increment(redis::addAndGet, 10, 0));
+        assertEquals(10, redis.get());
+    }
+
+    @Test
+    void testFailedLeaseLeavesStateUnchanged() {
+        CounterLease lease = new CounterLease();
+        assertThrows(IllegalStateException.class, () -> lease.increment(size -> {
+            throw new IllegalStateException("down");
+        }, 10, 0));
+        assertEquals(0, lease.remaining());
+        assertEquals(5, lease.increment(size -> 4 + size, 10, 0));
+    }
+
+    @Test
+    void testIdleSince() {
+        CounterLease lease = new CounterLease();
+        lease.increment(size -> size, 10, 100);
+        assertTrue(lease.isIdleSince(200));
+        assertFalse(lease.isIdleSince(100));
+    }
+}
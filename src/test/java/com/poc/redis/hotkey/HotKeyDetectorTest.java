@@ -0,0 +1,64 @@
+package com.poc.redis.hotkey;
+
+import com.poc.redis.config.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotKeyDetectorTest {
+
+    private static HotKeyDetector detector(int topK) {
+        ApplicationProperties.Redis.HotKeys properties = new ApplicationProperties.Redis.HotKeys();
+        properties.setEnabled(true);
+        properties.setSampleRate(1);
+        properties.setTopK(topK);
+        properties.setMinSamples(4);
+        return new HotKeyDetector(properties);
+    }
+
+    @Test
+    void testSkewedReadsReportHottestKeysFirst() {
+        HotKeyDetector detector = detector(3);
+        for (int round = 0; round < 100; round++) {
+            detector.record("users", 1L);
+            if (round % 2 == 0) {
+                detector.record("users", 2L);
+            }
+            // A long tail of keys read once each
+            detector.record("users", 1000L + round);
+        }
+
+        List<HotKeyDetector.Entry> hotKeys = detector.hotKeys();
+        assertEquals("1", hotKeys.get(0).key());
+        assertEquals("2", hotKeys.get(1).key());
+        assertTrue(hotKeys.get(0).estimatedRequests() >= 100);
+        assertTrue(detector.isHot("users", 1L));
+        assertFalse(detector.isHot("users", 1001L));
+        assertFalse(detector.isHot("redis", 1L));
+    }
+
+    @Test
+    void testDecayDropsKeysThatCooledDown() {
+        HotKeyDetector detector = detector(10);
+        for (int i = 0; i < 8; i++) {
+            detector.record("users", 7L);
+        }
+        assertTrue(detector.isHot("users", 7L));
+
+        detector.decay();
+        assertTrue(detector.isHot("users", 7L));
+        detector.decay();
+        assertFalse(detector.isHot("users", 7L));
+    }
+
+    @Test
+    void testDisabledDetectorNeverSamples() {
+        HotKeyDetector detector = new HotKeyDetector(new ApplicationProperties.Redis.HotKeys());
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(detector.sample());
+        }
+        assertTrue(detector.hotKeys().isEmpty());
+    }
+}
@@ -0,0 +1,126 @@
+package com.poc.redis.resilience;
+
+import com.poc.redis.config.ApplicationProperties;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedisCircuitBreakerTest {
+
+    private static ApplicationProperties.Redis.CommandTimeout timeoutProperties() {
+        ApplicationProperties.Redis.CommandTimeout properties = new ApplicationProperties.Redis.CommandTimeout();
+        properties.setAdaptive(true);
+        properties.setMin(Duration.ofMillis(10));
+        properties.setMax(Duration.ofSeconds(1));
+        properties.setInitial(Duration.ofMillis(100));
+        return properties;
+    }
+
+    private static RedisCircuitBreaker breaker(int failureThreshold) {
+        ApplicationProperties.Redis.CircuitBreaker properties = new ApplicationProperties.Redis.CircuitBreaker();
+        properties.setFailureThreshold(failureThreshold);
+        // Keep the probe from running during the test
+        properties.setProbeInterval(Duration.ofHours(1));
+        return new RedisCircuitBreaker(properties, null, new AdaptiveCommandTimeout(timeoutProperties()),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testOutagesAreRecognisedThroughWrappers() {
+        assertTrue(RedisCircuitBreaker.isOutage(new RedisConnectionFailureException("refused")));
+        assertTrue(RedisCircuitBreaker.isOutage(new RedisSystemException("wrapped",
+                new RedisCommandTimeoutException("Command timed out"))));
+        assertTrue(RedisCircuitBreaker.isOutage(new RedisSystemException("wrapped",
+                new RuntimeException("READONLY You can't write against a read only replica."))));
+        assertFalse(RedisCircuitBreaker.isOutage(new SerializationException("bad payload")));
+        assertFalse(RedisCircuitBreaker.isOutage(new IllegalStateException("WRONGTYPE Operation")));
+    }
+
+    @Test
+    void testOpensAfterConsecutiveFailuresOnly() {
+        RedisCircuitBreaker breaker = breaker(3);
+        try {
+            RedisConnectionFailureException failure = new RedisConnectionFailureException("refused");
+            breaker.recordFailure(failure);
+            breaker.recordFailure(failure);
+            breaker.recordSuccess();
+            breaker.recordFailure(failure);
+            breaker.recordFailure(failure);
+            assertTrue(breaker.allowRequest());
+
+            assertTrue(breaker.recordFailure(failure));
+            assertTrue(breaker.isOpen());
+            assertFalse(breaker.allowRequest());
+            assertThrows(RedisConnectionFailureException.class, breaker::checkAvailable);
+        } finally {
+            breaker.stop();
+        }
+    }
+
+    @Test
+    void testNonOutagesDoNotCount() {
+        RedisCircuitBreaker breaker = breaker(1);
+        try {
+            assertFalse(breaker.recordFailure(new SerializationException("bad payload")));
+            assertFalse(breaker.isOpen());
+        } finally {
+            breaker.stop();
+        }
+    }
+
+    @Test
+    void testTimeoutFollowsLatencyWithinBounds() {
+        AdaptiveCommandTimeout timeout = new AdaptiveCommandTimeout(timeoutProperties());
+        for (int i = 0; i < 200; i++) {
+            timeout.record(Duration.ofMillis(2).toNanos());
+        }
+        // Steady 2 ms latency: the estimate converges below min, so min applies
+        assertEquals(Duration.ofMillis(10).toNanos(), timeout.currentNanos());
+
+        for (int i = 0; i < 10; i++) {
+            timeout.backOff();
+        }
+        assertEquals(Duration.ofSeconds(1).toNanos(), timeout.currentNanos());
+    }
+
+    @Test
+    void testFixedTimeoutWhenNotAdaptive() {
+        ApplicationProperties.Redis.CommandTimeout properties = timeoutProperties();
+        properties.setAdaptive(false);
+        AdaptiveCommandTimeout timeout = new AdaptiveCommandTimeout(properties);
+        timeout.record(Duration.ofMillis(1).toNanos());
+        assertEquals(Duration.ofSeconds(1).toNanos(), timeout.currentNanos());
+    }
+
+    @Test
+    void testBlockingScriptAndBulkCommandsGetMax() {
+        AdaptiveCommandTimeout timeout = new AdaptiveCommandTimeout(timeoutProperties());
+        for (int i = 0; i < 200; i++) {
+            timeout.record(Duration.ofMillis(2).toNanos());
+        }
+        long max = Duration.ofSeconds(1).toNanos();
+        assertEquals(Duration.ofMillis(10).toNanos(), timeout.getTimeout(new Command<>(CommandType.GET, null)));
+        for (CommandType type : new CommandType[]{CommandType.WAIT, CommandType.XREADGROUP, CommandType.EVALSHA,
+                CommandType.SCAN, CommandType.UNLINK, CommandType.MGET, CommandType.BITOP}) {
+            assertEquals(max, timeout.getTimeout(new Command<>(type, null)), type.name());
+        }
+    }
+
+    @Test
+    void testExemptCommandsDoNotFeedEstimate() {
+        AdaptiveCommandTimeout timeout = new AdaptiveCommandTimeout(timeoutProperties());
+        long before = timeout.currentNanos();
+        timeout.recorder(CommandLatencyRecorder.disabled()).recordCommandLatency(null, null, CommandType.WAIT, 0, Duration.ofSeconds(3).toNanos());
+        assertEquals(before, timeout.currentNanos());
+    }
+}
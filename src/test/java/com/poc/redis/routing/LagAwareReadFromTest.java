@@ -0,0 +1,18 @@
+package com.poc.redis.routing;
+
+import io.lettuce.core.ReadFrom;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LagAwareReadFromTest {
+
+    @Test
+    void testOrderSensitivityFollowsDelegate() {
+        // ANY / ANY_REPLICA spread reads randomly; the wrapper must not pin them to the first node
+        assertFalse(new LagAwareReadFrom(ReadFrom.ANY, null).isOrderSensitive());
+        assertFalse(new LagAwareReadFrom(ReadFrom.ANY_REPLICA, null).isOrderSensitive());
+        assertTrue(new LagAwareReadFrom(ReadFrom.REPLICA_PREFERRED, null).isOrderSensitive());
+        assertTrue(new LagAwareReadFrom(ReadFrom.UPSTREAM_PREFERRED, null).isOrderSensitive());
+    }
+}
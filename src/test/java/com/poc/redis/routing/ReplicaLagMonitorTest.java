@@ -0,0 +1,48 @@
+package com.poc.redis.routing;
+
+import com.poc.redis.config.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicaLagMonitorTest {
+
+    private static final String INFO = """
+            # Replication\r
+            role:master\r
+            connected_slaves:3\r
+            slave0:ip=10.0.0.5,port=6379,state=online,offset=10000,lag=0\r
+            slave1:ip=10.0.0.6,port=6379,state=online,offset=2000,lag=0\r
+            slave2:ip=10.0.0.7,port=6379,state=wait_bgsave,offset=0,lag=5\r
+            master_failover_state:no-failover\r
+            master_repl_offset:10100\r
+            """;
+
+    @Test
+    void testParseMarksLaggingReplicas() {
+        ApplicationProperties.Redis.Sentinel.ReplicaLag limits = new ApplicationProperties.Redis.Sentinel.ReplicaLag();
+        limits.setMaxOffsetLag(1000);
+        limits.setMaxLag(Duration.ofSeconds(2));
+
+        ReplicaLagMonitor.Snapshot snapshot = ReplicaLagMonitor.parse(INFO, limits);
+
+        assertTrue(snapshot.master());
+        assertEquals(10100, snapshot.masterOffset());
+        assertEquals(3, snapshot.replicas().size());
+        assertFalse(snapshot.replicas().get("10.0.0.5:6379").lagging());
+        assertTrue(snapshot.replicas().get("10.0.0.6:6379").lagging());
+        assertTrue(snapshot.replicas().get("10.0.0.7:6379").lagging());
+        assertEquals(2, snapshot.laggingCount());
+    }
+
+    @Test
+    void testParseReplicaRole() {
+        ReplicaLagMonitor.Snapshot snapshot = ReplicaLagMonitor.parse(
+                "role:slave\nmaster_host:10.0.0.4\nmaster_repl_offset:500\n",
+                new ApplicationProperties.Redis.Sentinel.ReplicaLag());
+        assertFalse(snapshot.master());
+        assertTrue(snapshot.replicas().isEmpty());
+    }
+}
@@ -0,0 +1,59 @@
+package com.poc.redis.serializer;
+
+import com.poc.redis.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+
+    private CompactRedisSerializer serializer(boolean deflate) {
+        return new CompactRedisSerializer(json, deflate, 256, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testUserRoundTripIsSmallerThanJson() {
+        User user = new User(42L, "Alice", "alice@example.com", null);
+        byte[] bytes = serializer(false).serialize(user);
+        assertEquals(user, serializer(false).deserialize(bytes));
+        assertTrue(bytes.length < json.serialize(user).length);
+    }
+
+    @Test
+    void testLargeUserListIsDeflated() {
+        List<User> users = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            users.add(new User(i, "User " + i, "user" + i + "@example.com", "Developer"));
+        }
+        byte[] plain = serializer(false).serialize(users);
+        byte[] deflated = serializer(true).serialize(users);
+        assertTrue(deflated.length < plain.length);
+        assertEquals(users, serializer(true).deserialize(deflated));
+        assertEquals(users, serializer(true).deserialize(plain));
+    }
+
+    @Test
+    void testReadsEntriesWrittenBeforeRollout() {
+        User user = new User(1L, "Bob", "bob@example.com", "Manager");
+        assertEquals(user, serializer(false).deserialize(json.serialize(user)));
+        assertEquals(user, serializer(false).deserialize(RedisSerializer.java().serialize(user)));
+    }
+
+    @Test
+    void testOtherValuesStayPlainJson() {
+        // Map.of is a final JDK class, which gets no type id and could not be read back
+        Map<String, Object> value = new HashMap<>(Map.of("status", "ok"));
+        byte[] bytes = serializer(false).serialize(value);
+        assertEquals(value, json.deserialize(bytes));
+    }
+}
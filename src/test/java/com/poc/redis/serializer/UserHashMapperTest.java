@@ -0,0 +1,36 @@
+package com.poc.redis.serializer;
+
+import com.poc.redis.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserHashMapperTest {
+
+    private final UserHashMapper mapper = new UserHashMapper();
+
+    @Test
+    void testRoundTrip() {
+        User user = new User(42L, "Jane Doe", "jane.doe@example.com", "Engineer");
+        Map<String, String> hash = mapper.toHash(user);
+        assertEquals("42", hash.get(UserHashMapper.ID));
+        assertEquals("Engineer", hash.get(UserHashMapper.DESIGNATION));
+        assertEquals(user, mapper.fromHash(hash));
+    }
+
+    @Test
+    void testNullPropertiesHaveNoField() {
+        Map<String, String> hash = mapper.toHash(new User(7L, "Bob", null, null));
+        assertEquals(Map.of(UserHashMapper.ID, "7", UserHashMapper.NAME, "Bob"), hash);
+        User user = mapper.fromHash(hash);
+        assertNull(user.getEmail());
+        assertNull(user.getDesignation());
+    }
+
+    @Test
+    void testEmptyHashIsMissingEntry() {
+        assertNull(mapper.fromHash(Map.of()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.poc.redis.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedisBatchTest {
+
+    @Test
+    void testRepliesMappedInCommandOrder() {
+        RedisBatch batch = new RedisBatch();
+        RedisBatch.Result<Boolean> set = batch.set("a", "value", Duration.ofSeconds(30));
+        RedisBatch.Result<Object> get = batch.get("a");
+        RedisBatch.Result<Long> incr = batch.increment("counter");
+        RedisBatch.Result<Boolean> deleted = batch.delete("a");
+        RedisBatch.Result<Boolean> missing = batch.delete("b");
+
+        batch.complete(Arrays.asList(true, "value", 7L, 1L, 0L));
+
+        assertTrue(set.get());
+        assertEquals("value", get.get());
+        assertEquals(7L, incr.get());
+        assertTrue(deleted.get());
+        assertFalse(missing.get());
+    }
+
+    @Test
+    void testResultUnavailableBeforeExecution() {
+        RedisBatch batch = new RedisBatch();
+        RedisBatch.Result<Object> get = batch.get("a");
+        assertFalse(get.isDone());
+        assertThrows(IllegalStateException.class, get::get);
+    }
+
+    @Test
+    void testReplyCountMismatchRejected() {
+        RedisBatch batch = new RedisBatch();
+        batch.get("a");
+        batch.get("b");
+        assertThrows(IllegalStateException.class, () -> batch.complete(List.of("only-one")));
+    }
+}
@@ -0,0 +1,79 @@
+package com.poc.redis.service;
+
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.dao.UserRepository;
+import com.poc.redis.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UserCacheWarmUpTest {
+
+    @TempDir
+    Path dir;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserCacheSupport userCacheSupport = mock(UserCacheSupport.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserCacheWarmUp warmUp = new UserCacheWarmUp();
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.setRedis(new ApplicationProperties.Redis());
+        properties.getRedis().getWarmUp().setEnabled(true);
+        properties.getRedis().getWarmUp().setPageSize(2);
+        properties.getRedis().getWarmUp().setRateLimit(0);
+        properties.getRedis().getWarmUp().setSnapshotPath(dir.resolve("missing.snapshot").toString());
+
+        when(userRepository.count()).thenReturn(3L);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(user(1L), user(2L)));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class)))
+                .thenReturn(List.of(user(3L)));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(3L), any(Limit.class)))
+                .thenReturn(List.of());
+
+        ReflectionTestUtils.setField(warmUp, "userRepository", userRepository);
+        ReflectionTestUtils.setField(warmUp, "userCacheSupport", userCacheSupport);
+        ReflectionTestUtils.setField(warmUp, "applicationProperties", properties);
+        ReflectionTestUtils.setField(warmUp, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void testLoadedCountsWrittenUsers() {
+        when(userCacheSupport.putAll(anyCollection())).thenReturn(true);
+        warmUp.run(null);
+        assertEquals(3.0, meterRegistry.get("cache.warmup.loaded").gauge().value());
+        verify(userCacheSupport, times(2)).putAll(anyCollection());
+    }
+
+    @Test
+    void testSkippedWritesAreNotCountedAndStopTheWarmUp() {
+        when(userCacheSupport.putAll(anyCollection())).thenReturn(false);
+        warmUp.run(null);
+        assertEquals(0.0, meterRegistry.get("cache.warmup.loaded").gauge().value());
+        verify(userCacheSupport, times(1)).putAll(anyCollection());
+    }
+
+    @Test
+    void testNonPositivePageSizeRejected() {
+        ApplicationProperties.Redis.WarmUp properties = new ApplicationProperties.Redis.WarmUp();
+        assertThrows(IllegalArgumentException.class, () -> properties.setPageSize(0));
+        assertThrows(IllegalArgumentException.class, () -> properties.setPageSize(-1));
+    }
+
+    private static User user(Long id) {
+        return new User(id, "user-" + id, "user" + id + "@example.com", "engineer");
+    }
+}
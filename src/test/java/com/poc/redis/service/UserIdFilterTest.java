@@ -0,0 +1,121 @@
+package com.poc.redis.service;
+
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.dao.UserRepository;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the filter and negative-entry scripts against a Redis started from the embedded binaries.
+ */
+public class UserIdFilterTest {
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate template;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RedisCircuitBreaker circuitBreaker = mock(RedisCircuitBreaker.class);
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = RedisServer.newRedisServer().port(port).build();
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        template = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        template.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        when(circuitBreaker.allowRequest()).thenReturn(true);
+        when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void testLookupThatRacedACreateLeavesNoNegativeEntry() {
+        UserIdFilter filter = filter(false, 1000);
+        filter.recordMissing(7L);
+        assertFalse(filter.mightExist(7L));
+
+        // The lookup read the database before user 8 was committed and records the miss afterwards
+        filter.add(8L);
+        filter.recordMissing(8L);
+        assertTrue(filter.mightExist(8L));
+    }
+
+    @Test
+    void testDeleteAfterCreateIsRecorded() {
+        UserIdFilter filter = filter(false, 1000);
+        filter.add(9L);
+        filter.remove(9L);
+        assertFalse(filter.mightExist(9L));
+    }
+
+    @Test
+    void testBitmapBuiltWithOtherGeometryIsIgnored() {
+        UserIdFilter built = filter(true, 1000);
+        built.rebuild();
+        assertTrue(built.mightExist(2L));
+        assertFalse(built.mightExist(1_000_000L));
+
+        UserIdFilter resized = filter(true, 50_000);
+        assertTrue(resized.mightExist(1_000_000L));
+    }
+
+    private UserIdFilter filter(boolean bloomEnabled, long expectedInsertions) {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.setRedis(new ApplicationProperties.Redis());
+        ApplicationProperties.Redis.IdFilter idFilter = properties.getRedis().getIdFilter();
+        idFilter.setEnabled(bloomEnabled);
+        idFilter.setExpectedInsertions(expectedInsertions);
+        idFilter.setNegativeTtl(Duration.ofMinutes(1));
+
+        UserIdFilter filter = new UserIdFilter();
+        ReflectionTestUtils.setField(filter, "stringRedisTemplate", template);
+        ReflectionTestUtils.setField(filter, "userRepository", userRepository);
+        ReflectionTestUtils.setField(filter, "circuitBreaker", circuitBreaker);
+        ReflectionTestUtils.setField(filter, "applicationProperties", properties);
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        return filter;
+    }
+}
@@ -0,0 +1,211 @@
+package com.poc.redis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.redis.dao.UserRepository;
+import com.poc.redis.model.User;
+import com.poc.redis.model.UserPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserService's own cache handling, with in-memory caches standing in for Redis.
+ */
+public class UserServiceCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserCacheSupport userCacheSupport = mock(UserCacheSupport.class);
+    private final UserIdFilter userIdFilter = mock(UserIdFilter.class);
+    private final UserNameIndex userNameIndex = mock(UserNameIndex.class);
+    private final UserWriteBehind userWriteBehind = mock(UserWriteBehind.class);
+    private final UserVersions userVersions = mock(UserVersions.class);
+    private final CacheManager cacheManager = mock(CacheManager.class);
+    private final ConcurrentMapCache usersCache = new ConcurrentMapCache(UserCacheSupport.CACHE_NAME, false);
+    private final ConcurrentMapCache responseCache = new ConcurrentMapCache(UserCacheSupport.RESPONSE_CACHE_NAME, false);
+    private final ConcurrentMapCache pageCache = new ConcurrentMapCache(UserCacheSupport.PAGE_CACHE_NAME, false);
+    private final UserService userService = new UserService();
+
+    @BeforeEach
+    void setUp() {
+        when(cacheManager.getCache(UserCacheSupport.CACHE_NAME)).thenReturn(usersCache);
+        when(cacheManager.getCache(UserCacheSupport.RESPONSE_CACHE_NAME)).thenReturn(responseCache);
+        when(cacheManager.getCache(UserCacheSupport.PAGE_CACHE_NAME)).thenReturn(pageCache);
+        when(userIdFilter.mightExist(anyLong())).thenReturn(true);
+
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "userCacheSupport", userCacheSupport);
+        ReflectionTestUtils.setField(userService, "userIdFilter", userIdFilter);
+        ReflectionTestUtils.setField(userService, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(userService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(userService, "userNameIndex", userNameIndex);
+        ReflectionTestUtils.setField(userService, "userWriteBehind", userWriteBehind);
+        ReflectionTestUtils.setField(userService, "userVersions", userVersions);
+    }
+
+    @Test
+    void testUserJsonCachedWhenUserUnchanged() {
+        User user = new User(1L, "Ann", "ann@example.com", "dev");
+        usersCache.put(1L, user);
+        when(userCacheSupport.getAll(List.of(1L))).thenReturn(Map.of(1L, user));
+
+        byte[] body = userService.getUserJson(1L);
+        assertTrue(new String(body, StandardCharsets.UTF_8).contains("\"name\":\"Ann\""));
+        assertArrayEquals(body, (byte[]) responseCache.get(1L).get());
+    }
+
+    @Test
+    void testUserJsonEvictedWhenWriteRacedTheRender() {
+        usersCache.put(1L, new User(1L, "Ann", "ann@example.com", "dev"));
+        // The update landed in Redis (and evicted users-http::1) while the old body was rendered
+        when(userCacheSupport.getAll(List.of(1L))).thenReturn(Map.of(1L, new User(1L, "Ann", "ann@example.com", "lead")));
+
+        assertNotNull(userService.getUserJson(1L));
+        assertNull(responseCache.get(1L));
+    }
+
+    @Test
+    void testUserJsonEvictedWhenUserDeletedMeanwhile() {
+        usersCache.put(1L, new User(1L, "Ann", "ann@example.com", "dev"));
+        when(userCacheSupport.getAll(List.of(1L))).thenReturn(Map.of());
+
+        userService.getUserJson(1L);
+        assertNull(responseCache.get(1L));
+    }
+
+    @Test
+    void testCachedUserJsonIsNotRechecked() {
+        responseCache.put(1L, "{}".getBytes(StandardCharsets.UTF_8));
+        assertEquals("{}", new String(userService.getUserJson(1L), StandardCharsets.UTF_8));
+        verifyNoInteractions(userCacheSupport);
+    }
+
+    @Test
+    void testUpdateBumpsVersionAfterCachesAreCurrent() {
+        User old = new User(1L, "Ann", "ann@example.com", "dev");
+        usersCache.put(1L, old);
+        usersCache.put("all-users", List.of(old));
+        responseCache.put(1L, "old".getBytes(StandardCharsets.UTF_8));
+        responseCache.put("all-users", "old".getBytes(StandardCharsets.UTF_8));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L, "Ann", "ann@example.com", "dev")));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            // Whoever reads after the bump must find the new state
+            assertEquals("lead", ((User) usersCache.get(1L).get()).getDesignation());
+            assertNull(responseCache.get(1L));
+            assertNull(usersCache.get("all-users"));
+            assertNull(responseCache.get("all-users"));
+            return null;
+        }).when(userVersions).bump(1L);
+
+        userService.updateUser(1L, new User(null, "Ann", "ann@example.com", "lead"));
+        verify(userVersions).bump(1L);
+    }
+
+    @Test
+    void testCreateAndDeleteBumpVersions() {
+        when(userRepository.save(any(User.class))).thenReturn(new User(5L, "Bob", "bob@example.com", "dev"));
+        userService.createUser(new User(null, "Bob", "bob@example.com", "dev"));
+        verify(userVersions).bump(5L);
+        assertNotNull(usersCache.get(5L));
+
+        when(userRepository.findById(5L)).thenReturn(Optional.of(new User(5L, "Bob", "bob@example.com", "dev")));
+        userService.deleteUser(5L);
+        verify(userVersions, times(2)).bump(5L);
+        assertNull(usersCache.get(5L));
+    }
+
+    @Test
+    void testUpdateOfMissingUserDoesNotBump() {
+        when(userRepository.findById(9L)).thenReturn(Optional.empty());
+        assertNull(userService.updateUser(9L, new User(null, "X", null, null)));
+        verifyNoInteractions(userVersions);
+    }
+
+    @Test
+    void testFullPageCachesIdsAndOnlyBackfillsMissingEntries() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(users(1, 2));
+
+        UserPage page = userService.getUsersPage(0, 2);
+        assertEquals(2L, page.nextAfter());
+        assertEquals(List.of(1L, 2L), pageCache.get("0:2").get());
+        verify(userCacheSupport).putAllIfAbsent(users(1, 2));
+        verify(userCacheSupport, never()).putAll(anyCollection());
+    }
+
+    @Test
+    void testCachedPageIsReadFromPerIdEntries() {
+        pageCache.put("0:2", List.of(1, 2));
+        // User 2 was updated after the page was cached, user 1 was deleted
+        when(userCacheSupport.getAll(List.of(1L, 2L))).thenReturn(Map.of(2L, new User(2L, "renamed", null, null)));
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of());
+
+        UserPage page = userService.getUsersPage(0, 2);
+        assertEquals(List.of(new User(2L, "renamed", null, null)), page.users());
+        assertEquals(2L, page.nextAfter());
+        verify(userRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void testLastPageIsNotCached() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class))).thenReturn(users(3, 3));
+
+        UserPage page = userService.getUsersPage(2, 2);
+        assertNull(page.nextAfter());
+        assertNull(pageCache.get("2:2"));
+        verify(userCacheSupport).putAllIfAbsent(users(3, 3));
+    }
+
+    @Test
+    void testMultiGetBackfillsOnlyMisses() {
+        when(userCacheSupport.getAll(List.of(1L, 2L))).thenReturn(Map.of(1L, new User(1L, "user-1", null, null)));
+        when(userRepository.findAllById(List.of(2L))).thenReturn(users(2, 2));
+
+        assertEquals(2, userService.getUsersByIds(List.of(1L, 2L, 1L)).size());
+        verify(userCacheSupport).putAllIfAbsent(users(2, 2));
+    }
+
+    @Test
+    void testExportReadsChunksUntilAShortOne() {
+        when(userRepository.findDetachedAfter(eq(0L), any(Pageable.class))).thenReturn(users(1, 2));
+        when(userRepository.findDetachedAfter(eq(2L), any(Pageable.class))).thenReturn(users(3, 4));
+        when(userRepository.findDetachedAfter(eq(4L), any(Pageable.class))).thenReturn(users(5, 5));
+        List<List<User>> chunks = new ArrayList<>();
+
+        userService.exportUsers(2, chunks::add);
+        assertEquals(List.of(users(1, 2), users(3, 4), users(5, 5)), chunks);
+        verify(userRepository, times(3)).findDetachedAfter(anyLong(), any(Pageable.class));
+        verifyNoInteractions(userCacheSupport);
+    }
+
+    @Test
+    void testExportOfFullLastChunkEndsOnEmptyChunk() {
+        when(userRepository.findDetachedAfter(eq(0L), any(Pageable.class))).thenReturn(users(1, 2));
+        when(userRepository.findDetachedAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        List<List<User>> chunks = new ArrayList<>();
+
+        userService.exportUsers(2, chunks::add);
+        assertEquals(List.of(users(1, 2)), chunks);
+    }
+
+    private static List<User> users(long from, long to) {
+        List<User> users = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            users.add(new User(id, "user-" + id, "user" + id + "@example.com", "dev"));
+        }
+        return users;
+    }
+}
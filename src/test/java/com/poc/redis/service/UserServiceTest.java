@@ -20,6 +20,9 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserNameIndex userNameIndex;
+
     @InjectMocks
     private UserService userService;
 
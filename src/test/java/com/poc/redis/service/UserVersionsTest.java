@@ -0,0 +1,117 @@
+package com.poc.redis.service;
+
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the version scripts against a Redis started from the embedded binaries.
+ */
+public class UserVersionsTest {
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate template;
+
+    private final RedisCircuitBreaker circuitBreaker = mock(RedisCircuitBreaker.class);
+    private final UserVersions versions = new UserVersions();
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = RedisServer.newRedisServer().port(port).build();
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        template = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        template.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        when(circuitBreaker.allowRequest()).thenReturn(true);
+
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.setRedis(new ApplicationProperties.Redis());
+        properties.getRedis().getEtag().setEnabled(true);
+        properties.getRedis().getEtag().setVersionTtl(Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(versions, "stringRedisTemplate", template);
+        ReflectionTestUtils.setField(versions, "circuitBreaker", circuitBreaker);
+        ReflectionTestUtils.setField(versions, "applicationProperties", properties);
+    }
+
+    @Test
+    void testReadsAreStableUntilBumped() {
+        String user = versions.userEtag(1L);
+        String all = versions.allUsersEtag();
+        assertNotNull(user);
+        assertEquals(user, versions.userEtag(1L));
+        assertEquals(all, versions.allUsersEtag());
+
+        versions.bump(1L);
+        assertNotEquals(user, versions.userEtag(1L));
+        assertNotEquals(all, versions.allUsersEtag());
+    }
+
+    @Test
+    void testBumpLeavesOtherUsersAlone() {
+        String other = versions.userEtag(2L);
+        versions.bump(1L);
+        assertEquals(other, versions.userEtag(2L));
+    }
+
+    @Test
+    void testExpiredVersionRestartsFromUnusedValue() {
+        String before = versions.userEtag(1L);
+        template.delete("app-version:{users}::1");
+        String after = versions.userEtag(1L);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void testMissedBumpWithholdsEtagsUntilNewEpoch() {
+        String before = versions.userEtag(1L);
+        when(circuitBreaker.allowRequest()).thenReturn(false);
+        versions.bump(1L);
+        when(circuitBreaker.allowRequest()).thenReturn(true);
+        assertNull(versions.userEtag(1L));
+
+        versions.repair();
+        String after = versions.userEtag(1L);
+        assertNotNull(after);
+        assertNotEquals(before.split("-")[0], after.split("-")[0]);
+    }
+}
@@ -0,0 +1,150 @@
+package com.poc.redis.service;
+
+import com.poc.redis.config.ApplicationProperties;
+import com.poc.redis.dao.UserRepository;
+import com.poc.redis.model.User;
+import com.poc.redis.resilience.RedisCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UserWriteBehindTest {
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final StreamOperations<String, Object, Object> streams = mock(StreamOperations.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CacheManager cacheManager = mock(CacheManager.class);
+    private final Cache usersCache = mock(Cache.class);
+    private final Cache responseCache = mock(Cache.class);
+    private final RedisCircuitBreaker circuitBreaker = mock(RedisCircuitBreaker.class);
+    private final UserVersions userVersions = mock(UserVersions.class);
+    private final UserWriteBehind writeBehind = new UserWriteBehind();
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.setRedis(new ApplicationProperties.Redis());
+        properties.getRedis().getWriteBehind().setEnabled(true);
+        properties.getRedis().getWriteBehind().setMaxQueueSize(10);
+        properties.getRedis().getWriteBehind().setFlushInterval(Duration.ofHours(1));
+
+        when(stringRedisTemplate.opsForStream()).thenReturn(streams);
+        when(streams.pending(anyString(), anyString(), any(), anyLong())).thenReturn(mock(PendingMessages.class));
+        when(streams.size(anyString())).thenReturn(0L);
+        when(circuitBreaker.allowRequest()).thenReturn(true);
+        when(cacheManager.getCache(UserCacheSupport.CACHE_NAME)).thenReturn(usersCache);
+        when(cacheManager.getCache(UserCacheSupport.RESPONSE_CACHE_NAME)).thenReturn(responseCache);
+
+        ReflectionTestUtils.setField(writeBehind, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(writeBehind, "userRepository", userRepository);
+        ReflectionTestUtils.setField(writeBehind, "applicationProperties", properties);
+        ReflectionTestUtils.setField(writeBehind, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writeBehind, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(writeBehind, "circuitBreaker", circuitBreaker);
+        ReflectionTestUtils.setField(writeBehind, "userVersions", userVersions);
+        writeBehind.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBehind.stop();
+    }
+
+    @Test
+    void testEnqueueQueuesUpdate() {
+        assertTrue(writeBehind.enqueue(new User(1L, "Alice", "alice@example.com", "Dev")));
+        verify(streams).add(eq("app-stream:user-writes"), anyMap());
+    }
+
+    @Test
+    void testFullQueueRejectsInsteadOfWritingThrough() {
+        ((AtomicLong) ReflectionTestUtils.getField(writeBehind, "backlog")).set(10);
+        assertThrows(WriteBehindRejectedException.class,
+                () -> writeBehind.enqueue(new User(1L, "Alice", "alice@example.com", "Dev")));
+        verify(streams, never()).add(anyString(), anyMap());
+    }
+
+    @Test
+    void testFailedEnqueueRejectsInsteadOfWritingThrough() {
+        when(streams.add(anyString(), anyMap())).thenThrow(new RedisConnectionFailureException("down"));
+        assertThrows(WriteBehindRejectedException.class,
+                () -> writeBehind.enqueue(new User(1L, "Alice", "alice@example.com", "Dev")));
+        verify(circuitBreaker).recordFailure(any());
+    }
+
+    @Test
+    void testOpenCircuitRejects() {
+        when(circuitBreaker.allowRequest()).thenReturn(false);
+        assertThrows(WriteBehindRejectedException.class,
+                () -> writeBehind.enqueue(new User(1L, "Alice", "alice@example.com", "Dev")));
+        verify(streams, never()).add(anyString(), anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushWritesLatestUpdatePerUserAndEvictsFlushedEntries() {
+        List<MapRecord<String, Object, Object>> records = List.of(
+                record("1-0", 1L, "Alice"),
+                record("2-0", 2L, "Bob"),
+                record("3-0", 1L, "Alice Smith"));
+        when(streams.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(new ArrayList<>(records), new ArrayList<>());
+
+        writeBehind.flush();
+
+        ArgumentCaptor<Collection<User>> written = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository).updateAll(written.capture(), anyInt());
+        Map<Long, String> names = new HashMap<>();
+        written.getValue().forEach(user -> names.put(user.getId(), user.getName()));
+        assertEquals(Map.of(1L, "Alice Smith", 2L, "Bob"), names);
+
+        verify(streams).acknowledge(anyString(), anyString(), any(RecordId[].class));
+        // Entries cached from the old rows go too, not only the lists
+        for (Cache cache : List.of(usersCache, responseCache)) {
+            verify(cache).evict(1L);
+            verify(cache).evict(2L);
+            verify(cache).evict("all-users");
+            verify(cache, never()).put(any(), any());
+        }
+        // Bumped only after the evictions
+        InOrder order = inOrder(responseCache, userVersions);
+        order.verify(responseCache).evict("all-users");
+        order.verify(userVersions).bump(List.of(1L, 2L));
+    }
+
+    private static MapRecord<String, Object, Object> record(String id, Long userId, String name) {
+        Map<Object, Object> fields = new HashMap<>();
+        fields.put("id", userId.toString());
+        fields.put("name", name);
+        return StreamRecords.newRecord().in("app-stream:user-writes").withId(RecordId.of(id)).ofMap(fields);
+    }
+}